@@ -0,0 +1,22 @@
+package com.kjubo.excel;
+
+import java.util.List;
+
+/**
+ * 批量接收导入数据，多用于批量写入数据库
+ */
+@FunctionalInterface
+public interface BatchSink<T> {
+
+    /**
+     * 接收一批校验通过的数据，除最后一批外每批的数量都等于 batchSize
+     * @param batch
+     */
+    void accept(List<T> batch);
+
+    /**
+     * 所有批次都处理完毕后回调一次，多用于提交事务
+     */
+    default void flush() {
+    }
+}
@@ -0,0 +1,220 @@
+package com.kjubo.excel;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带缓存的 ICodeable
+ * 创建时（以及过期后第一次使用时）通过 loadCodeList 预加载 code 与 name 的双向映射，
+ * 未命中的值再调用原 ICodeable 查询，查询结果（包括查不到的值）同样缓存
+ * 映射按最近使用淘汰，数量不超过 maxSize；可以在多个线程中共用
+ */
+public class CachedCodeable implements ICodeable {
+
+    /**
+     * 默认最多缓存的映射数量
+     */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    /**
+     * 缓存查不到的值
+     */
+    private static final String ABSENT = new String("");
+
+    private final ICodeable delegate;
+    private final long ttlNanos;
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private Map<String, String> nameByCode;
+    private Map<String, String> codeByName;
+    private List<? extends ICodeBean> codeList;
+    private long expireAt;
+
+    /**
+     * 只在一次导入导出中使用的缓存，不会过期
+     *
+     * @param delegate
+     */
+    public CachedCodeable(ICodeable delegate) {
+        this(delegate, 0, TimeUnit.MILLISECONDS, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param delegate 实际查询的 ICodeable
+     * @param ttl      缓存有效期，小于等于0时不过期
+     * @param unit
+     * @param maxSize  最多缓存的映射数量
+     */
+    public CachedCodeable(ICodeable delegate, long ttl, TimeUnit unit, int maxSize) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate can not be null");
+        }
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.delegate = delegate;
+        this.ttlNanos = ttl > 0 ? unit.toNanos(ttl) : 0;
+        this.maxSize = maxSize;
+        this.reload();
+    }
+
+    /**
+     * 已缓存的 ICodeable 直接返回，否则创建只在本次操作中使用的缓存
+     *
+     * @param codeable
+     * @return
+     */
+    public static ICodeable of(ICodeable codeable) {
+        if (codeable == null || codeable instanceof CachedCodeable) {
+            return codeable;
+        }
+        return new CachedCodeable(codeable);
+    }
+
+    public ICodeable getDelegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public synchronized List<? extends ICodeBean> loadCodeList() {
+        this.checkExpired();
+        return this.codeList;
+    }
+
+    @Override
+    public String getName(String id) {
+        return this.lookup(id, true);
+    }
+
+    @Override
+    public String getCode(String name) {
+        return this.lookup(name, false);
+    }
+
+    @Override
+    public Map<String, String> getNames(Collection<String> ids) {
+        return this.lookupAll(ids, true);
+    }
+
+    @Override
+    public Map<String, String> getCodes(Collection<String> names) {
+        return this.lookupAll(names, false);
+    }
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * 清空缓存并重新加载 loadCodeList
+     */
+    public synchronized void reload() {
+        List<? extends ICodeBean> list = this.delegate.loadCodeList();
+        this.codeList = list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+        this.nameByCode = newLruMap(this.maxSize);
+        this.codeByName = newLruMap(this.maxSize);
+        for (ICodeBean bean : this.codeList) {
+            this.nameByCode.put(bean.code(), bean.codeName());
+            this.codeByName.put(bean.codeName(), bean.code());
+        }
+        this.expireAt = this.ttlNanos > 0 ? System.nanoTime() + this.ttlNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "CachedCodeable{" + this.delegate.getClass().getSimpleName()
+                + ", hits=" + this.getHitCount() + ", misses=" + this.getMissCount() + "}";
+    }
+
+    private String lookup(String key, boolean byCode) {
+        if (key == null) {
+            return null;
+        }
+        String value;
+        synchronized (this) {
+            this.checkExpired();
+            value = (byCode ? this.nameByCode : this.codeByName).get(key);
+        }
+        if (value != null) {
+            this.hits.increment();
+            return value == ABSENT ? null : value;
+        }
+        this.misses.increment();
+        // 查询可能访问数据库，不在锁内进行
+        value = byCode ? this.delegate.getName(key) : this.delegate.getCode(key);
+        synchronized (this) {
+            (byCode ? this.nameByCode : this.codeByName).put(key, value == null ? ABSENT : value);
+        }
+        return value;
+    }
+
+    /**
+     * 已缓存的值直接返回，其余的值通过一次批量查询获取
+     */
+    private Map<String, String> lookupAll(Collection<String> keys, boolean byCode) {
+        Map<String, String> result = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        synchronized (this) {
+            this.checkExpired();
+            Map<String, String> cache = byCode ? this.nameByCode : this.codeByName;
+            for (String key : keys) {
+                if (key == null) {
+                    continue;
+                }
+                String value = cache.get(key);
+                if (value == null) {
+                    missing.add(key);
+                } else if (value != ABSENT) {
+                    result.put(key, value);
+                }
+            }
+        }
+        this.hits.add(result.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+        this.misses.add(missing.size());
+        Map<String, String> loaded = byCode ? this.delegate.getNames(missing) : this.delegate.getCodes(missing);
+        synchronized (this) {
+            Map<String, String> cache = byCode ? this.nameByCode : this.codeByName;
+            for (String key : missing) {
+                String value = loaded == null ? null : loaded.get(key);
+                cache.put(key, value == null ? ABSENT : value);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void checkExpired() {
+        if (this.ttlNanos > 0 && System.nanoTime() - this.expireAt > 0) {
+            this.reload();
+        }
+    }
+
+    private static Map<String, String> newLruMap(int maxSize) {
+        return new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return this.size() > maxSize;
+            }
+        };
+    }
+}
@@ -0,0 +1,180 @@
+package com.kjubo.excel;
+
+import com.kjubo.excel.reader.ExcelCellType;
+import com.kjubo.excel.reader.ExcelRow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次导入中单元格序号与列属性的对应关系
+ * 按标题行匹配列（标题映射后的 colName 或注解的 name），没有标题行或标题行没有匹配的列时按列顺序对应
+ * 确定后不再修改，可以在多个线程中共用
+ */
+final class ColumnBinding {
+
+    /**
+     * 导出时必填列标题的后缀
+     */
+    private static final String REQUIRED_MARK = "*";
+
+    /**
+     * 单元格序号对应的列属性，没有对应的列为 null
+     */
+    private final ExcelColumnInfo[] cells;
+
+    /**
+     * 列属性对应的单元格序号，与 columns 顺序相同，没有对应的单元格为 -1
+     */
+    private final int[] cellIndexes;
+
+    private final List<ExcelColumnInfo> columns;
+
+    /**
+     * 属性名对应的列属性序号
+     */
+    private final Map<String, Integer> byFieldName;
+
+    /**
+     * 是否按标题行对应
+     */
+    private final boolean byHeader;
+
+    private ColumnBinding(List<ExcelColumnInfo> columns, int[] cellIndexes, boolean byHeader) {
+        this.columns = columns;
+        this.byHeader = byHeader;
+        this.cellIndexes = cellIndexes;
+        int length = 0;
+        for (int cell : cellIndexes) {
+            length = Math.max(length, cell + 1);
+        }
+        this.cells = new ExcelColumnInfo[length];
+        this.byFieldName = new HashMap<>(columns.size() * 2);
+        for (int i = 0; i < columns.size(); i++) {
+            ExcelColumnInfo column = columns.get(i);
+            if (cellIndexes[i] >= 0) {
+                this.cells[cellIndexes[i]] = column;
+            }
+            this.byFieldName.put(column.getFieldName(), i);
+        }
+    }
+
+    /**
+     * 按列顺序对应，第 i 列对应第 i 个单元格
+     *
+     * @param columns 按 col 排序的列属性
+     * @return
+     */
+    static ColumnBinding positional(List<ExcelColumnInfo> columns) {
+        int[] cellIndexes = new int[columns.size()];
+        for (int i = 0; i < cellIndexes.length; i++) {
+            cellIndexes[i] = i;
+        }
+        return new ColumnBinding(columns, cellIndexes, false);
+    }
+
+    /**
+     * 按标题行对应，标题行中没有任何列的标题时按列顺序对应
+     *
+     * @param columns 按 col 排序的列属性
+     * @param header  标题行
+     * @return
+     */
+    static ColumnBinding fromHeader(List<ExcelColumnInfo> columns, ExcelRow header) {
+        Map<String, Integer> titles = new HashMap<>();
+        for (int c = 0; c < header.getLastCellNum(); c++) {
+            if (header.getCellType(c) != ExcelCellType.STRING) {
+                continue;
+            }
+            String title = normalize(header.getString(c));
+            if (!title.isEmpty()) {
+                // 重复的标题对应第一次出现的单元格
+                titles.putIfAbsent(title, c);
+            }
+        }
+        int[] cellIndexes = new int[columns.size()];
+        boolean matched = false;
+        for (int i = 0; i < cellIndexes.length; i++) {
+            ExcelColumnInfo column = columns.get(i);
+            Integer cell = titles.remove(normalize(column.getColName()));
+            if (cell == null) {
+                cell = titles.remove(normalize(column.getName()));
+            }
+            cellIndexes[i] = cell == null ? -1 : cell;
+            matched |= cell != null;
+        }
+        return matched ? new ColumnBinding(columns, cellIndexes, true) : positional(columns);
+    }
+
+    /**
+     * 按单元格序号排列的列属性，没有对应的列为 null
+     *
+     * @return
+     */
+    ExcelColumnInfo[] getCells() {
+        return this.cells;
+    }
+
+    /**
+     * 按属性名查找列属性
+     *
+     * @param fieldName
+     * @return 不是模板列时为 null
+     */
+    ExcelColumnInfo getColumn(String fieldName) {
+        Integer index = this.byFieldName.get(fieldName);
+        return index == null ? null : this.columns.get(index);
+    }
+
+    /**
+     * 属性对应的单元格序号
+     *
+     * @param fieldName
+     * @return 不是模板列或没有对应的单元格时为 -1
+     */
+    int getCellIndex(String fieldName) {
+        Integer index = this.byFieldName.get(fieldName);
+        return index == null ? -1 : this.cellIndexes[index];
+    }
+
+    /**
+     * 是否按标题行对应，没有标题行或标题行没有任何列的标题时为 false
+     *
+     * @return
+     */
+    boolean isByHeader() {
+        return this.byHeader;
+    }
+
+    /**
+     * 标题行中没有找到的列
+     *
+     * @return
+     */
+    List<ExcelColumnInfo> getMissingColumns() {
+        List<ExcelColumnInfo> missing = null;
+        for (int i = 0; i < this.cellIndexes.length; i++) {
+            if (this.cellIndexes[i] < 0) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(this.columns.get(i));
+            }
+        }
+        return missing == null ? Collections.emptyList() : missing;
+    }
+
+    private static String normalize(String title) {
+        if (title == null) {
+            return "";
+        }
+        String result = title.trim();
+        if (result.endsWith(REQUIRED_MARK)) {
+            result = result.substring(0, result.length() - REQUIRED_MARK.length()).trim();
+        }
+        return result;
+    }
+}
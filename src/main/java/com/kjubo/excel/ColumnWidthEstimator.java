@@ -0,0 +1,135 @@
+package com.kjubo.excel;
+
+import java.time.DateTimeException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 导出时估算列宽，单位为字符数
+ * 按显示宽度计算，中日韩文字和全角字符计为2，其他字符计为1，计算过程不创建对象
+ * 注解指定了宽度的列使用固定宽度，日期列按格式估算固定宽度；可以只按前 sampleRows 行数据估算
+ */
+final class ColumnWidthEstimator {
+
+    /**
+     * excel 允许的最大列宽
+     */
+    static final int MAX_WIDTH = 255;
+
+    /**
+     * 估算日期列宽度时格式化的日期，月、日、时、分、秒都是两位
+     */
+    private static final ZonedDateTime SAMPLE_DATE = ZonedDateTime.of(2000, 12, 28, 23, 59, 59, 999_000_000, ZoneOffset.UTC);
+
+    private final int[] widths;
+    private final boolean[] fixed;
+    private final int sampleRows;
+    private int measuredRows = 0;
+
+    /**
+     * @param colInfo
+     * @param sampleRows 按前多少行数据估算，小于0时按全部数据估算
+     */
+    ColumnWidthEstimator(List<ExcelColumnInfo> colInfo, int sampleRows) {
+        this.widths = new int[colInfo.size()];
+        this.fixed = new boolean[colInfo.size()];
+        this.sampleRows = sampleRows;
+        for (int i = 0; i < colInfo.size(); i++) {
+            ExcelColumnInfo col = colInfo.get(i);
+            if (col.getWidth() > 0) {
+                this.widths[i] = col.getWidth();
+                this.fixed[i] = true;
+            } else if (col.getName() != null) {
+                this.widths[i] = displayWidth(col.getName());
+            }
+        }
+    }
+
+    /**
+     * 日期列的宽度只取决于格式，按格式化一个日期的宽度固定列宽，数据行不再计算
+     *
+     * @param col
+     * @param formatter 列的日期格式
+     * @param pattern   格式化失败时按格式字符串估算
+     */
+    void fixDateWidth(int col, DateTimeFormatter formatter, String pattern) {
+        if (this.fixed[col]) {
+            return;
+        }
+        int width;
+        try {
+            width = displayWidth(formatter.format(SAMPLE_DATE));
+        } catch (DateTimeException e) {
+            width = pattern == null ? 0 : displayWidth(pattern);
+        }
+        this.widths[col] = Math.max(this.widths[col], width);
+        this.fixed[col] = true;
+    }
+
+    /**
+     * 是否还需要计算数据行的宽度
+     *
+     * @return
+     */
+    boolean isSampling() {
+        return this.sampleRows < 0 || this.measuredRows < this.sampleRows;
+    }
+
+    void measure(int col, CharSequence text) {
+        if (text != null && !this.fixed[col]) {
+            int width = displayWidth(text);
+            if (width > this.widths[col]) {
+                this.widths[col] = width;
+            }
+        }
+    }
+
+    /**
+     * 一行数据计算完成
+     */
+    void endRow() {
+        this.measuredRows++;
+    }
+
+    int getWidth(int col) {
+        return Math.min(MAX_WIDTH, this.widths[col]);
+    }
+
+    double[] getWidths() {
+        double[] result = new double[this.widths.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = this.getWidth(i);
+        }
+        return result;
+    }
+
+    static int displayWidth(CharSequence text) {
+        int width = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c)) {
+                // 扩展区的汉字和表情都按全角计算，低位代理不再计数
+                width += 2;
+                i++;
+            } else {
+                width += isWide(c) ? 2 : 1;
+            }
+            if (width >= MAX_WIDTH) {
+                return MAX_WIDTH;
+            }
+        }
+        return width;
+    }
+
+    private static boolean isWide(char c) {
+        return c >= 0x1100 && (c <= 0x115F                   // 谚文字母
+                || (c >= 0x2E80 && c <= 0xA4CF && c != 0x303F) // 中日韩部首、标点、假名、汉字、彝文
+                || (c >= 0xAC00 && c <= 0xD7A3)              // 谚文音节
+                || (c >= 0xF900 && c <= 0xFAFF)              // 兼容汉字
+                || (c >= 0xFE30 && c <= 0xFE4F)              // 兼容形式
+                || (c >= 0xFF00 && c <= 0xFF60)              // 全角字符
+                || (c >= 0xFFE0 && c <= 0xFFE6));
+    }
+}
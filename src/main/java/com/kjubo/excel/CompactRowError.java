@@ -0,0 +1,95 @@
+package com.kjubo.excel;
+
+import java.util.List;
+
+/**
+ * 紧凑的行错误，每个错误只保存列序号、错误序号和单元格内容的文本
+ * 不引用校验的对象和 ConstraintViolation，错误信息在需要时才拼接
+ */
+public final class CompactRowError {
+
+    private final int rowIndex;
+
+    /**
+     * 每个错误对应的列序号，没有对应的单元格为 -1
+     */
+    private final int[] colIndexes;
+
+    /**
+     * 每个错误在 codes 中的序号
+     */
+    private final int[] codeIds;
+
+    /**
+     * 每个错误的单元格内容或校验值的文本，没有值时为 null
+     */
+    private final String[] values;
+
+    private final List<ExcelErrorCode> codes;
+
+    CompactRowError(int rowIndex, int[] colIndexes, int[] codeIds, String[] values, List<ExcelErrorCode> codes) {
+        this.rowIndex = rowIndex;
+        this.colIndexes = colIndexes;
+        this.codeIds = codeIds;
+        this.values = values;
+        this.codes = codes;
+    }
+
+    /**
+     * excel 对应行号
+     *
+     * @return
+     */
+    public int getRowIndex() {
+        return this.rowIndex;
+    }
+
+    /**
+     * 该行的错误数量
+     *
+     * @return
+     */
+    public int size() {
+        return this.codeIds.length;
+    }
+
+    /**
+     * 第 i 个错误的 excel 列序号，从0开始，没有对应的单元格为 -1
+     */
+    public int getColIndex(int i) {
+        return this.colIndexes[i];
+    }
+
+    public ExcelErrorCode getCode(int i) {
+        return this.codes.get(this.codeIds[i]);
+    }
+
+    /**
+     * 第 i 个错误的单元格内容或校验值的文本，没有值时为 null
+     */
+    public String getValue(int i) {
+        return this.values[i];
+    }
+
+    /**
+     * 第 i 个错误的错误信息，由错误的模板和该行的值生成
+     */
+    public String getMessage(int i) {
+        return this.getCode(i).render(this.values[i]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buffer = new StringBuilder();
+        if (this.codeIds.length > 0) {
+            buffer.append("第").append(this.rowIndex).append("行:\n");
+            for (int i = 0; i < this.codeIds.length; i++) {
+                ExcelErrorCode code = this.getCode(i);
+                buffer.append(code.getColName().isEmpty() ? code.getFieldName() : code.getColName())
+                        .append(code.render(this.values[i]))
+                        .append("\n");
+            }
+        }
+        return buffer.toString();
+    }
+}
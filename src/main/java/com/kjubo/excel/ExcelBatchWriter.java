@@ -0,0 +1,137 @@
+package com.kjubo.excel;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * 把逐行导入的数据按 batchSize 分批交给 BatchSink
+ * 指定 executor 时批次按顺序在 executor 中写入，与解析并行进行；
+ * 未完成的批次超过 maxPendingBatches 时解析线程阻塞等待
+ */
+public class ExcelBatchWriter<T extends BaseTemplate> implements Consumer<T>, Closeable {
+
+    private final BatchSink<T> sink;
+    private final int batchSize;
+    private final Executor executor;
+    private final Semaphore pending;
+
+    private List<T> batch;
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+    private boolean closed = false;
+
+    public ExcelBatchWriter(BatchSink<T> sink, int batchSize) {
+        this(sink, batchSize, null, 1);
+    }
+
+    /**
+     * @param sink              批量接收数据
+     * @param batchSize         每批的数量
+     * @param executor          写入批次的线程池，为空时在解析线程中同步写入
+     * @param maxPendingBatches 已提交但未写入完成的最大批次数
+     */
+    public ExcelBatchWriter(BatchSink<T> sink, int batchSize, Executor executor, int maxPendingBatches) {
+        if (sink == null) {
+            throw new IllegalArgumentException("sink can not be null");
+        }
+        if (batchSize <= 0 || maxPendingBatches <= 0) {
+            throw new IllegalArgumentException("batchSize and maxPendingBatches must be positive");
+        }
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.pending = new Semaphore(maxPendingBatches);
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * 校验不通过的行不会写入
+     * @param item
+     */
+    @Override
+    public void accept(T item) {
+        if (this.closed) {
+            throw new IllegalStateException("batch writer is closed");
+        }
+        if (item == null || Boolean.TRUE.equals(item.getHasError())) {
+            return;
+        }
+        this.batch.add(item);
+        if (this.batch.size() >= this.batchSize) {
+            this.submit();
+        }
+    }
+
+    /**
+     * 写入剩余的数据，等待所有批次完成后调用 BatchSink.flush
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        if (!this.batch.isEmpty()) {
+            this.submit();
+        }
+        this.closed = true;
+        this.await();
+        this.sink.flush();
+    }
+
+    /**
+     * 导入失败时丢弃未提交的数据，等待已提交的批次结束，不调用 BatchSink.flush
+     */
+    public void abort() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.batch = new ArrayList<>();
+        try {
+            this.tail.join();
+        } catch (CompletionException ignored) {
+            // 导入本身已经失败
+        }
+    }
+
+    private void submit() {
+        List<T> current = this.batch;
+        this.batch = new ArrayList<>(this.batchSize);
+        if (this.executor == null) {
+            this.sink.accept(current);
+            return;
+        }
+        // 已有批次写入失败时停止解析
+        if (this.tail.isCompletedExceptionally()) {
+            this.await();
+        }
+        try {
+            this.pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("batch import interrupted", e);
+        }
+        this.tail = this.tail.thenRunAsync(() -> this.sink.accept(current), this.executor);
+        // 前面的批次失败时本批次不会执行，同样需要归还名额
+        this.tail.whenComplete((v, e) -> this.pending.release());
+    }
+
+    private void await() {
+        try {
+            this.tail.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
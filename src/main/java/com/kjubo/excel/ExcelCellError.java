@@ -0,0 +1,40 @@
+package com.kjubo.excel;
+
+import lombok.Data;
+
+/**
+ * 单元格转换失败的信息，例如日期格式错误、数字格式错误
+ * 转换失败的属性不会被赋值，也不再报告该属性的校验错误
+ */
+@Data
+public class ExcelCellError {
+    /**
+     * excel 列序号，从0开始
+     */
+    Integer colIndex;
+
+    /**
+     * 列标题
+     */
+    String colName;
+
+    /**
+     * 模板属性名
+     */
+    String fieldName;
+
+    /**
+     * 单元格的原始内容
+     */
+    String value;
+
+    /**
+     * 错误信息
+     */
+    String message;
+
+    /**
+     * 错误信息模板，单元格内容的占位符为 {0}；同一转换器的同类错误模板相同
+     */
+    String messageTemplate;
+}
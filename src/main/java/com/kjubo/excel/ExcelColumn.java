@@ -30,4 +30,11 @@ public @interface ExcelColumn {
 	 */
 	String name();
 
+	/**
+	 * 导出时的列宽（字符数），大于0时使用固定列宽，不按内容估算
+	 *
+	 * @return
+	 */
+	int width() default 0;
+
 }
\ No newline at end of file
@@ -1,34 +1,129 @@
 package com.kjubo.excel;
 
-import lombok.Data;
+import com.kjubo.excel.bind.FieldAccessor;
+import com.kjubo.excel.bind.FieldAccessors;
+import com.kjubo.excel.convert.CellConverter;
+import com.kjubo.excel.convert.CellConverters;
+import com.kjubo.excel.convert.DateFormats;
+import lombok.Getter;
 
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import java.lang.reflect.Field;
+import java.time.format.DateTimeFormatter;
 
-@Data
+/**
+ * 模板列属性，由 ExcelTemplateSchema 编译并缓存，创建后不可修改
+ */
+@Getter
 public class ExcelColumnInfo {
 
 	private static final String DATE_FORMAT = "yyyy/M/d";
 
-	private int col = 0;
-	private ICodeable excelColumnCodeable;
-	private String name;
-	private String colName;
-	private Field field;
-	private String fieldName;
-	private String[] dateFormat;
+	private final int col;
+	private final ICodeable excelColumnCodeable;
+	private final String name;
+	private final String colName;
+	private final Field field;
+	private final String fieldName;
+	private final FieldAccessor accessor;
+	private final String[] dateFormat;
 
+	/**
+	 * 按默认日期格式格式化，线程安全，可以在多个线程中共用
+	 */
+	private final DateTimeFormatter dateFormatter;
 
-	public ExcelColumnInfo(ExcelColumn excelColumn) {
+	/**
+	 * 按 dateFormat 依次严格解析，没有配置时使用默认日期格式
+	 */
+	private final DateTimeFormatter[] dateParsers;
+
+	/**
+	 * 导出时的固定列宽，为0时按内容估算
+	 */
+	private final int width;
+
+	/**
+	 * 被@NotNull, @NotEmpty, @NotBlank 修饰的属性
+	 */
+	private final boolean required;
+
+	/**
+	 * 属性上的 @Digits，没有时为 null；导入 BigDecimal 时按 fraction 保留小数位数
+	 */
+	private final Digits digits;
+
+	/**
+	 * 导入时使用的转换器，按属性类型选定
+	 */
+	private final CellConverter<?> converter;
+
+	public ExcelColumnInfo(ExcelColumn excelColumn, Field field, ICodeable excelColumnCodeable, String[] dateFormat) {
 		this.col = excelColumn.col();
 		this.name = excelColumn.name();
 		this.colName = excelColumn.name();
+		this.excelColumnCodeable = excelColumnCodeable;
+		this.field = field;
+		this.fieldName = field.getName();
+		this.accessor = FieldAccessors.of(field);
+		this.dateFormat = dateFormat;
+		this.dateFormatter = DateFormats.formatter(this.getDefaultDateFormat());
+		this.dateParsers = DateFormats.parsers(dateFormat != null && dateFormat.length > 0
+				? dateFormat : new String[]{this.getDefaultDateFormat()});
+		this.width = excelColumn.width();
+		this.required = field.isAnnotationPresent(NotNull.class)
+				|| field.isAnnotationPresent(NotEmpty.class)
+				|| field.isAnnotationPresent(NotBlank.class);
+		this.digits = field.getAnnotation(Digits.class);
+		this.converter = CellConverters.create(this);
+	}
+
+	private ExcelColumnInfo(ExcelColumnInfo source, String colName, ICodeable excelColumnCodeable) {
+		this.col = source.col;
+		this.name = source.name;
+		this.colName = colName;
+		this.excelColumnCodeable = excelColumnCodeable;
+		this.field = source.field;
+		this.fieldName = source.fieldName;
+		this.accessor = source.accessor;
+		this.dateFormat = source.dateFormat;
+		this.dateFormatter = source.dateFormatter;
+		this.dateParsers = source.dateParsers;
+		this.width = source.width;
+		this.required = source.required;
+		this.digits = source.digits;
+		this.converter = excelColumnCodeable == source.excelColumnCodeable
+				? source.converter : CellConverters.create(this);
+	}
+
+	/**
+	 * 按标题映射生成新的列属性
+	 *
+	 * @param colName excel中的标题
+	 * @return
+	 */
+	public ExcelColumnInfo withColName(String colName) {
+		return new ExcelColumnInfo(this, colName, this.excelColumnCodeable);
+	}
+
+	/**
+	 * 替换列的 ICodeable，用于在一次导入导出中使用带缓存的 ICodeable
+	 *
+	 * @param excelColumnCodeable
+	 * @return
+	 */
+	public ExcelColumnInfo withCodeable(ICodeable excelColumnCodeable) {
+		return new ExcelColumnInfo(this, this.colName, excelColumnCodeable);
 	}
 
 	public String getDefaultDateFormat() {
 		if (this.getDateFormat() != null && this.getDateFormat().length > 0) {
-			return DATE_FORMAT;
-		} else {
 			return this.getDateFormat()[0];
+		} else {
+			return DATE_FORMAT;
 		}
 	}
 }
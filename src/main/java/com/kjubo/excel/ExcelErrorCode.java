@@ -0,0 +1,142 @@
+package com.kjubo.excel;
+
+import com.kjubo.excel.convert.CellConversionException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.MessageInterpolator;
+import javax.validation.Validation;
+import javax.validation.ValidationException;
+import javax.validation.metadata.ConstraintDescriptor;
+
+/**
+ * 一次导入中去重后的错误：同一属性、同一约束、同一错误信息模板只保存一份
+ * 行错误中只保存错误的序号和值的文本，错误信息在需要时由模板和值生成
+ */
+@Slf4j
+@Getter
+public final class ExcelErrorCode {
+
+    /**
+     * 单元格转换失败时的约束名称
+     */
+    public static final String CONVERSION = "Conversion";
+
+    /**
+     * 校验信息中引用校验值的表达式
+     */
+    private static final String VALIDATED_VALUE = "${validatedValue";
+
+    /**
+     * 在本次导入中的序号，从0开始
+     */
+    private final int id;
+
+    /**
+     * 模板属性名，不是模板列的约束为属性路径
+     */
+    private final String fieldName;
+
+    /**
+     * 列标题，不是模板列时为空字符串
+     */
+    private final String colName;
+
+    /**
+     * 约束注解的名称，例如 NotNull；单元格转换失败时为 CONVERSION
+     */
+    private final String constraint;
+
+    /**
+     * 错误信息模板：校验错误为约束的 message，转换错误中单元格内容的占位符为 {0}
+     */
+    private final String messageTemplate;
+
+    /**
+     * 第一次出现时的错误信息
+     */
+    private final String message;
+
+    /**
+     * 校验错误的约束，转换错误为 null；只引用约束的元数据，不引用校验的对象
+     */
+    private final ConstraintDescriptor<?> descriptor;
+
+    /**
+     * 本次导入中出现的次数，包括没有保存详细信息的行
+     */
+    private int count;
+
+    ExcelErrorCode(int id, String fieldName, String colName, String constraint,
+                   String messageTemplate, String message, ConstraintDescriptor<?> descriptor) {
+        this.id = id;
+        this.fieldName = fieldName;
+        this.colName = colName;
+        this.constraint = constraint;
+        this.messageTemplate = messageTemplate;
+        this.message = message;
+        this.descriptor = descriptor;
+    }
+
+    void increment() {
+        this.count++;
+    }
+
+    /**
+     * 按模板生成某一行的错误信息
+     * 转换错误替换单元格内容；引用 ${validatedValue} 的校验信息用值的文本重新替换参数，其他校验信息与值无关
+     *
+     * @param value 该行保存的值的文本，可以为 null
+     * @return
+     */
+    public String render(String value) {
+        if (this.descriptor == null) {
+            return CellConversionException.render(this.messageTemplate, value);
+        }
+        if (!this.messageTemplate.contains(VALIDATED_VALUE)) {
+            return this.message;
+        }
+        try {
+            return InterpolatorHolder.INTERPOLATOR.interpolate(this.messageTemplate, new SnapshotContext(this.descriptor, value));
+        } catch (RuntimeException e) {
+            log.debug("can not interpolate {}: {}", this.messageTemplate, e.toString());
+            return this.message;
+        }
+    }
+
+    /**
+     * 默认的参数替换器在第一次使用时创建
+     */
+    private static final class InterpolatorHolder {
+        private static final MessageInterpolator INTERPOLATOR =
+                Validation.byDefaultProvider().configure().getDefaultMessageInterpolator();
+    }
+
+    private static final class SnapshotContext implements MessageInterpolator.Context {
+        private final ConstraintDescriptor<?> descriptor;
+        private final String value;
+
+        SnapshotContext(ConstraintDescriptor<?> descriptor, String value) {
+            this.descriptor = descriptor;
+            this.value = value;
+        }
+
+        @Override
+        public ConstraintDescriptor<?> getConstraintDescriptor() {
+            return this.descriptor;
+        }
+
+        @Override
+        public Object getValidatedValue() {
+            return this.value;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) {
+            if (type.isInstance(this)) {
+                return type.cast(this);
+            }
+            throw new ValidationException("can not unwrap " + type.getName());
+        }
+    }
+}
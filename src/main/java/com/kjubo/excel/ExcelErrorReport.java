@@ -0,0 +1,277 @@
+package com.kjubo.excel;
+
+import com.kjubo.excel.reader.ExcelReader;
+import com.kjubo.excel.reader.ExcelRow;
+import com.kjubo.excel.writer.ExcelFormats;
+import com.kjubo.excel.writer.XlsxSheetWriter;
+import com.kjubo.excel.writer.XlsxStreamWriter;
+
+import javax.validation.ConstraintViolation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 错误报告：把导入的源文件逐行复制到新的 .xlsx，标出错误的单元格，并在每行后面添加错误信息列
+ * 源文件按导入时的方式读取（.xlsx 为流式读取），行错误按行号与源文件的行合并，内存中只保留当前行和错误列表
+ * 每次写入创建一个实例，不能在多个线程中共用
+ */
+final class ExcelErrorReport {
+
+    static final String ERROR_TITLE = "错误信息";
+
+    /**
+     * 不是模板列的日期单元格使用的格式
+     */
+    private static final String DEFAULT_DATE_FORMAT = "yyyy/m/d";
+
+    private final List<ExcelColumnInfo> colInfo;
+    private final ImportOptions options;
+
+    /**
+     * 按行号排列的行错误
+     */
+    private final List<RowErrors> errors;
+
+    private XlsxStreamWriter workbook;
+    private XlsxSheetWriter sheet;
+    private ColumnBinding binding;
+    private int errorCol;
+    private int cursor = 0;
+
+    /**
+     * 每个单元格序号的日期样式和日期错误样式，最后一个位置为没有对应列的单元格，0 表示尚未查找
+     */
+    private int[] dateStyles;
+    private int[] dateErrorStyles;
+
+    private ExcelErrorReport(List<ExcelColumnInfo> colInfo, ImportOptions options, List<RowErrors> errors) {
+        this.colInfo = colInfo;
+        this.options = options == null ? ImportOptions.defaults() : options;
+        this.errors = errors;
+        this.errors.sort(Comparator.comparingInt(p -> p.rowIndex));
+    }
+
+    static ExcelErrorReport of(List<ExcelColumnInfo> colInfo, ImportOptions options, List<ExcelRowError> errors) {
+        List<RowErrors> rows = new ArrayList<>(errors.size());
+        for (ExcelRowError error : errors) {
+            rows.add(new ViolationRowErrors(error));
+        }
+        return new ExcelErrorReport(colInfo, options, rows);
+    }
+
+    /**
+     * 只标出保存了详细错误的行
+     */
+    static ExcelErrorReport of(List<ExcelColumnInfo> colInfo, ImportOptions options, ImportErrors errors) {
+        List<RowErrors> rows = new ArrayList<>(errors.getRowErrors().size());
+        for (CompactRowError error : errors.getRowErrors()) {
+            rows.add(new CompactRowErrors(error));
+        }
+        return new ExcelErrorReport(colInfo, options, rows);
+    }
+
+    /**
+     * 写入错误报告，输出流不会被关闭
+     *
+     * @param source 导入时的源文件
+     * @param out    输出流
+     * @throws IOException
+     */
+    void write(InputStream source, OutputStream out) throws IOException {
+        try (ExcelReader reader = ExcelReader.open(source);
+             XlsxStreamWriter workbook = new XlsxStreamWriter(out)) {
+            this.workbook = workbook;
+            int sheetIndex = ExcelTemplate.getSheetIndex(reader, this.options);
+            this.sheet = workbook.createSheet(sheetIndex < 0 ? "Sheet1" : reader.getSheetNames().get(sheetIndex));
+            if (sheetIndex >= 0) {
+                try {
+                    reader.read(sheetIndex, row -> {
+                        try {
+                            this.copyRow(row);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            this.sheet.close();
+        }
+    }
+
+    private void copyRow(ExcelRow row) throws IOException {
+        int headerIndex = this.options.getBeginRowNum() - 1;
+        if (row.getRowIndex() == headerIndex) {
+            this.bind(ColumnBinding.fromHeader(this.colInfo, row), row.getLastCellNum());
+            this.sheet.startRow(row.getRowIndex());
+            for (int c = 0; c < row.getLastCellNum(); c++) {
+                this.copyCell(row, c, c, XlsxStreamWriter.HEADER_STYLE, false);
+            }
+            this.sheet.writeString(this.errorCol, ERROR_TITLE, XlsxStreamWriter.HEADER_STYLE);
+            return;
+        }
+        this.sheet.startRow(row.getRowIndex());
+        if (row.getRowIndex() < this.options.getBeginRowNum()) {
+            for (int c = 0; c < row.getLastCellNum(); c++) {
+                this.copyCell(row, c, c, XlsxStreamWriter.DEFAULT_STYLE, false);
+            }
+            return;
+        }
+        if (this.binding == null) {
+            this.bind(ColumnBinding.positional(this.colInfo), this.colInfo.size());
+        }
+        // 跳过源文件中不存在的行的错误
+        while (this.cursor < this.errors.size() && this.errors.get(this.cursor).rowIndex < row.getRowIndex()) {
+            this.cursor++;
+        }
+        BitSet errorCells = new BitSet();
+        StringBuilder message = new StringBuilder();
+        while (this.cursor < this.errors.size() && this.errors.get(this.cursor).rowIndex == row.getRowIndex()) {
+            this.errors.get(this.cursor++).append(this.binding, errorCells, message);
+        }
+        // 错误信息列之后的单元格向后移动一列
+        int lastCellNum = Math.max(row.getLastCellNum(), errorCells.length());
+        for (int c = 0; c < Math.min(lastCellNum, this.errorCol); c++) {
+            this.copyCell(row, c, c, XlsxStreamWriter.DEFAULT_STYLE, errorCells.get(c));
+        }
+        if (message.length() > 0) {
+            this.sheet.writeString(this.errorCol, message.toString(), XlsxStreamWriter.ERROR_STYLE);
+        }
+        for (int c = this.errorCol; c < lastCellNum; c++) {
+            this.copyCell(row, c, c + 1, XlsxStreamWriter.DEFAULT_STYLE, errorCells.get(c));
+        }
+    }
+
+    private void bind(ColumnBinding binding, int errorCol) {
+        this.binding = binding;
+        this.errorCol = errorCol;
+        this.dateStyles = new int[binding.getCells().length + 1];
+        this.dateErrorStyles = new int[binding.getCells().length + 1];
+    }
+
+    private void copyCell(ExcelRow row, int col, int target, int style, boolean error) throws IOException {
+        int cellStyle = error ? XlsxStreamWriter.ERROR_STYLE : style;
+        switch (row.getCellType(col)) {
+            case STRING:
+                this.sheet.writeString(target, row.getString(col), cellStyle);
+                break;
+            case NUMBER:
+                this.sheet.writeNumber(target, row.getNumber(col), cellStyle);
+                break;
+            case DATE:
+                this.sheet.writeNumber(target, row.getNumber(col), this.getDateStyle(col, error));
+                break;
+            case BOOLEAN:
+                this.sheet.writeBoolean(target, row.getBoolean(col), cellStyle);
+                break;
+            default:
+                if (error) {
+                    this.sheet.writeBlank(target, cellStyle);
+                }
+                break;
+        }
+    }
+
+    /**
+     * 日期单元格按列的默认日期格式显示，每个单元格序号只查找一次样式
+     */
+    private int getDateStyle(int col, boolean error) {
+        if (this.binding == null) {
+            // 标题行之前的行
+            return this.workbook.getFormatStyle(DEFAULT_DATE_FORMAT);
+        }
+        ExcelColumnInfo[] cells = this.binding.getCells();
+        ExcelColumnInfo column = col < cells.length ? cells[col] : null;
+        int[] styles = error ? this.dateErrorStyles : this.dateStyles;
+        int slot = column == null ? cells.length : col;
+        if (styles[slot] == 0) {
+            String format = column == null ? DEFAULT_DATE_FORMAT : ExcelFormats.fromDatePattern(column.getDefaultDateFormat());
+            styles[slot] = error ? this.workbook.getErrorStyle(format) : this.workbook.getFormatStyle(format);
+        }
+        return styles[slot];
+    }
+
+    /**
+     * 一行的错误，按单元格序号标出错误并追加错误信息
+     */
+    private abstract static class RowErrors {
+
+        /**
+         * excel 对应行号，从0开始
+         */
+        final int rowIndex;
+
+        RowErrors(int rowIndex) {
+            this.rowIndex = rowIndex;
+        }
+
+        abstract void append(ColumnBinding binding, BitSet errorCells, StringBuilder message);
+
+        static void appendMessage(StringBuilder message, String column, String text) {
+            if (message.length() > 0) {
+                message.append("; ");
+            }
+            message.append(column).append(text);
+        }
+    }
+
+    private static final class ViolationRowErrors extends RowErrors {
+        private final ExcelRowError error;
+
+        ViolationRowErrors(ExcelRowError error) {
+            super(error.getRowIndex() - 1);
+            this.error = error;
+        }
+
+        @Override
+        void append(ColumnBinding binding, BitSet errorCells, StringBuilder message) {
+            if (this.error.getCellErrors() != null) {
+                for (ExcelCellError cellError : this.error.getCellErrors()) {
+                    if (cellError.getColIndex() != null && cellError.getColIndex() >= 0) {
+                        errorCells.set(cellError.getColIndex());
+                    }
+                    appendMessage(message, cellError.getColName(), cellError.getMessage());
+                }
+            }
+            if (this.error.getErrors() != null) {
+                for (ConstraintViolation<?> violation : this.error.getErrors()) {
+                    String fieldName = violation.getPropertyPath().toString();
+                    int cell = binding.getCellIndex(fieldName);
+                    if (cell >= 0) {
+                        errorCells.set(cell);
+                    }
+                    ExcelColumnInfo column = binding.getColumn(fieldName);
+                    appendMessage(message, column == null ? fieldName : column.getColName(), violation.getMessage());
+                }
+            }
+        }
+    }
+
+    private static final class CompactRowErrors extends RowErrors {
+        private final CompactRowError error;
+
+        CompactRowErrors(CompactRowError error) {
+            super(error.getRowIndex() - 1);
+            this.error = error;
+        }
+
+        @Override
+        void append(ColumnBinding binding, BitSet errorCells, StringBuilder message) {
+            for (int i = 0; i < this.error.size(); i++) {
+                if (this.error.getColIndex(i) >= 0) {
+                    errorCells.set(this.error.getColIndex(i));
+                }
+                ExcelErrorCode code = this.error.getCode(i);
+                appendMessage(message, code.getColName().isEmpty() ? code.getFieldName() : code.getColName(),
+                        this.error.getMessage(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.kjubo.excel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+/**
+ * 拉取式的导入迭代器
+ * 解析线程把行对象放入有界队列，队列满时解析暂停，内存占用与文件行数无关
+ * 必须使用 try-with-resources 关闭：没有读完也没有关闭时解析线程会一直阻塞在队列上，并持有文件和临时文件
+ */
+public class ExcelImportIterator<T> implements Iterator<T>, Closeable {
+
+    private static final int QUEUE_SIZE = 1024;
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final Consumer<ExcelRowError> onError;
+    private final Thread producer;
+
+    private volatile boolean closed = false;
+    private volatile ImportResult<T> result;
+    private boolean finished = false;
+    private T next;
+
+    /**
+     * @param onError
+     * @param threadFactory 创建解析线程，为空时创建名为 sqexcel-import 的守护线程
+     * @param source
+     */
+    ExcelImportIterator(Consumer<ExcelRowError> onError, ThreadFactory threadFactory, Source<T> source) {
+        this.onError = onError;
+        Runnable task = () -> {
+            try {
+                this.result = source.read(this::put, this::put);
+                this.put(END);
+            } catch (Throwable e) {
+                if (!this.closed) {
+                    try {
+                        this.queue.put(new Failure(e));
+                    } catch (InterruptedException ignored) {
+                        // 迭代器已关闭，不再需要传递异常
+                    }
+                }
+            }
+        };
+        if (threadFactory == null) {
+            this.producer = new Thread(task, "sqexcel-import");
+            this.producer.setDaemon(true);
+        } else {
+            this.producer = threadFactory.newThread(task);
+        }
+        this.producer.start();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next != null) {
+            return true;
+        }
+        while (!this.finished) {
+            Object element = this.take();
+            if (element == END) {
+                this.finished = true;
+            } else if (element instanceof Failure) {
+                this.finished = true;
+                throw ((Failure) element).rethrow();
+            } else if (element instanceof ExcelRowError) {
+                if (this.onError != null) {
+                    this.onError.accept((ExcelRowError) element);
+                }
+            } else {
+                @SuppressWarnings("unchecked")
+                T item = (T) element;
+                this.next = item;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T item = this.next;
+        this.next = null;
+        return item;
+    }
+
+    /**
+     * 本次导入的行数统计，迭代结束前为 null
+     *
+     * @return
+     */
+    public ImportResult<T> getResult() {
+        return this.finished ? this.result : null;
+    }
+
+    /**
+     * 停止解析线程，释放文件资源；迭代完成后同样需要调用
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.finished = true;
+        this.producer.interrupt();
+        this.queue.clear();
+    }
+
+    private void put(Object element) {
+        if (this.closed) {
+            throw new CancellationException("excel import iterator closed");
+        }
+        try {
+            this.queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("excel import iterator closed");
+        }
+    }
+
+    private Object take() {
+        try {
+            return this.queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.close();
+            throw new CancellationException("excel import interrupted");
+        }
+    }
+
+    /**
+     * 在解析线程中执行的导入过程
+     */
+    @FunctionalInterface
+    interface Source<T> {
+        ImportResult<T> read(Consumer<T> onRow, Consumer<ExcelRowError> onError) throws IOException;
+    }
+
+    private static class Failure {
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+
+        RuntimeException rethrow() {
+            if (this.cause instanceof RuntimeException) {
+                return (RuntimeException) this.cause;
+            }
+            if (this.cause instanceof Error) {
+                throw (Error) this.cause;
+            }
+            if (this.cause instanceof IOException) {
+                return new UncheckedIOException((IOException) this.cause);
+            }
+            return new IllegalStateException(this.cause);
+        }
+    }
+}
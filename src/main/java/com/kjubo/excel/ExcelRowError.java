@@ -21,15 +21,29 @@ public class ExcelRowError {
      */
     List<ConstraintViolation> errors;
 
+    /**
+     * 单元格转换失败的内容，转换失败的属性不会出现在 errors 中
+     */
+    List<ExcelCellError> cellErrors;
+
     @Override
     public String toString() {
         StringBuffer buffer = new StringBuffer();
-        if (CollectionUtils.isNotEmpty(this.errors)) {
+        if (CollectionUtils.isNotEmpty(this.errors) || CollectionUtils.isNotEmpty(this.cellErrors)) {
             buffer.append("第").append(this.getRowIndex()).append("行:\n");
-            for (ConstraintViolation item : this.errors) {
-                buffer.append(item.getPropertyPath().toString())
-                        .append(item.getMessage())
-                        .append("\n");
+            if (this.cellErrors != null) {
+                for (ExcelCellError item : this.cellErrors) {
+                    buffer.append(item.getColName())
+                            .append(item.getMessage())
+                            .append("\n");
+                }
+            }
+            if (this.errors != null) {
+                for (ConstraintViolation item : this.errors) {
+                    buffer.append(item.getPropertyPath().toString())
+                            .append(item.getMessage())
+                            .append("\n");
+                }
             }
         }
         return buffer.toString();
@@ -1,12 +1,17 @@
 package com.kjubo.excel;
 
-import com.kjubo.excel.validation.annotation.IsDate;
-import lombok.Getter;
+import com.kjubo.excel.convert.CellConversionException;
+import com.kjubo.excel.convert.CellConverters;
+import com.kjubo.excel.convert.DateFormats;
+import com.kjubo.excel.reader.ExcelReader;
+import com.kjubo.excel.reader.ExcelRow;
+import com.kjubo.excel.writer.ExcelFormats;
+import com.kjubo.excel.writer.XlsxSheetWriter;
+import com.kjubo.excel.writer.XlsxStreamWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.time.DateUtils;
-import org.apache.poi.hssf.usermodel.HSSFDateUtil;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddressList;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
@@ -20,20 +25,26 @@ import org.springframework.stereotype.Component;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
-import javax.validation.constraints.Digits;
-import javax.validation.constraints.NotBlank;
-import javax.validation.constraints.NotEmpty;
-import javax.validation.constraints.NotNull;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Field;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.text.MessageFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 @Component
@@ -44,46 +55,100 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         ctx = applicationContext;
+        resolvedValidator = null;
+        ExcelTemplateSchema.clear();
     }
 
-    private static final Integer EXCEL_LIMIT_ROW_NUM = 65535;
-    private static final String REQUIRED_MARK = "*";
+    /**
+     * 通过 setValidator 指定的共用校验器
+     */
+    private static volatile Validator customValidator;
 
     /**
-     * ExcelTemplate对应类
+     * 从 spring 上下文或默认 ValidatorFactory 获取的共用校验器
      */
-    private Class<T> clazz = null;
+    private static volatile Validator resolvedValidator;
 
     /**
-     * 标注必填字段
-     * 凡是被@NotNull, @NotEmpty, @NotBlank 修饰的属性
-     * 在标题栏会在标题名称后面默认添加 "*" 表示必填
+     * 指定所有导入共用的校验器，为空时恢复为 spring 上下文中的校验器或默认校验器
+     *
+     * @param validator
      */
-    private boolean markRequiredProperty = true;
+    public static void setValidator(Validator validator) {
+        customValidator = validator;
+    }
 
     /**
-     * 导入行数
+     * 校验器的选择顺序：导入参数 &gt; setValidator &gt; spring 上下文中的 Validator &gt; 默认 ValidatorFactory
+     * Validator 是线程安全的，只创建一次
+     *
+     * @param options
+     * @return
      */
-    @Getter
-    private int count = 0;
+    private static Validator getValidator(ImportOptions options) {
+        if (options.getValidator() != null) {
+            return options.getValidator();
+        }
+        Validator validator = customValidator;
+        if (validator != null) {
+            return validator;
+        }
+        validator = resolvedValidator;
+        if (validator == null) {
+            synchronized (ExcelTemplate.class) {
+                validator = resolvedValidator;
+                if (validator == null) {
+                    validator = resolveValidator();
+                    resolvedValidator = validator;
+                }
+            }
+        }
+        return validator;
+    }
+
+    private static Validator resolveValidator() {
+        ApplicationContext context = ctx;
+        if (context != null && context.getBeanNamesForType(Validator.class).length > 0) {
+            try {
+                return context.getBean(Validator.class);
+            } catch (BeansException e) {
+                log.warn("can not get Validator from ApplicationContext, use the default one: {}", e.getMessage());
+            }
+        }
+        return DefaultValidatorHolder.VALIDATOR;
+    }
 
     /**
-     * 成功行数
+     * 默认 ValidatorFactory 在第一次使用时创建，整个应用共用
      */
-    @Getter
-    private int success = 0;
+    private static final class DefaultValidatorHolder {
+        private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    private static final String REQUIRED_MARK = "*";
+    private static final String CONVERSION_MESSAGE = "格式错误";
+    private static final String CONVERSION_TEMPLATE = "格式错误: " + CellConversionException.VALUE;
+    private static final BigInteger MAX_EXACT_INTEGER = BigInteger.valueOf(1_000_000_000_000_000L);
 
     /**
-     * 行错误的具体信息
+     * ICodeable 列批量查询的行数
      */
-    @Getter
-    private List<ExcelRowError> errors = new ArrayList<>();
+    private static final int CODE_CHUNK_SIZE = 512;
 
-    public boolean hasError() {
-        return success < count;
-    }
+    /**
+     * ExcelTemplate对应类
+     */
+    private final Class<T> clazz;
+
+    /**
+     * 标注必填字段
+     * 凡是被@NotNull, @NotEmpty, @NotBlank 修饰的属性
+     * 在标题栏会在标题名称后面默认添加 "*" 表示必填
+     */
+    private final boolean markRequiredProperty;
 
     private ExcelTemplate() {
+        this(null, true);
     }
 
     private ExcelTemplate(Class<T> clazz, boolean markRequiredProperty) {
@@ -93,6 +158,7 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
 
     /**
      * 获取实例的方法
+     * 实例不保存导入状态，可以缓存并在多线程中共用
      *
      * @param clazz
      * @param <T>
@@ -106,22 +172,35 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
         return new ExcelTemplate<>(clazz, markRequiredProperty);
     }
 
+    /**
+     * @deprecated 不返回行错误信息，使用 {@link #importExcelResult(InputStream)}
+     */
+    @Deprecated
     public List<T> importExcel(InputStream inputStream) throws IOException {
         return this.importExcel(inputStream, null, 1);
     }
 
+    /**
+     * @deprecated 不返回行错误信息，使用 {@link #importExcelResult(InputStream, ImportOptions)}，
+     * 标题映射通过 {@link ImportOptions#of(Map, Integer)} 指定
+     */
+    @Deprecated
     public List<T> importExcel(InputStream inputStream, Map<String, String> titleMapper) throws IOException {
         return this.importExcel(inputStream, titleMapper, 1);
     }
 
     /***
      * 将excel转化为对象列表
+     * 转换或校验失败的行 hasError 为 true，但行错误信息不会返回；读取文件失败时抛出异常
      * @param inputStream    excel文件流
      * @param titleMapper    标题转化数据，可以为空
      * @param beginRowNum    excel数据开始行，默认值为1
      * @return
      * @throws IOException
+     * @deprecated 不返回行错误信息，使用 {@link #importExcelResult(InputStream, ImportOptions)}，
+     * 标题映射和开始行通过 {@link ImportOptions#of(Map, Integer)} 指定
      */
+    @Deprecated
     public List<T> importExcel(final InputStream inputStream,
                                final Map<String, String> titleMapper,
                                final Integer beginRowNum) throws IOException {
@@ -129,76 +208,573 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
             return Collections.emptyList();
         }
         List<T> list = new ArrayList<>();
-        List<ExcelColumnInfo> colInfo = this.getTemplateColumnInfo(titleMapper);
-
-        // 读取文件
-        try (Workbook wb = WorkbookFactory.create(inputStream)) {
-            this.count = 0;
-            this.success = 0;
-            this.errors.clear();
-
-            ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-            Validator validator = factory.getValidator();
-            // 取得对口地域
-            Sheet sheet = wb.getSheetAt(0);
-            // 得到总行数
-            for (int i = beginRowNum, rowNum = sheet.getLastRowNum(); i <= rowNum; i++) {
-                Row row = sheet.getRow(i);
-                if (this.isRowEmpty(row)) {    //跳过全部是空白的行
+        this.importExcel(inputStream, ImportOptions.of(titleMapper, beginRowNum), list::add, null);
+        return list;
+    }
+
+    public ImportResult<T> importExcelResult(InputStream inputStream) throws IOException {
+        return this.importExcelResult(inputStream, ImportOptions.defaults());
+    }
+
+    /***
+     * 将excel转化为对象列表，同时返回行数统计和行错误信息
+     * @param inputStream    excel文件流
+     * @param options        导入参数
+     * @return
+     * @throws IOException
+     */
+    public ImportResult<T> importExcelResult(final InputStream inputStream,
+                                             final ImportOptions options) throws IOException {
+        ImportResult.Builder<T> result = new ImportResult.Builder<>(ImportErrors.of(options));
+        List<T> rows = new ArrayList<>();
+        // 启用 compactErrors 时错误只以紧凑形式保存
+        List<ExcelRowError> errors = result.getCompactErrors() == null ? new ArrayList<>() : null;
+        this.doImport(inputStream, options, rows::add, errors == null ? null : errors::add, result);
+        return result.build(rows, errors);
+    }
+
+    public ImportResult<T> importExcel(InputStream inputStream, Consumer<T> onRow, Consumer<ExcelRowError> onError) throws IOException {
+        return this.importExcel(inputStream, ImportOptions.defaults(), onRow, onError);
+    }
+
+    /***
+     * 逐行导入excel，每解析完一行即回调，不在内存中保留已解析的行和错误
+     * @param inputStream    excel文件流
+     * @param options        导入参数
+     * @param onRow          每一行的对象，校验不通过的对象 hasError 为 true
+     * @param onError        校验不通过行的错误信息，可以为空
+     * @return 行数统计，不包含行和错误信息
+     * @throws IOException
+     */
+    public ImportResult<T> importExcel(final InputStream inputStream,
+                                       final ImportOptions options,
+                                       final Consumer<T> onRow,
+                                       final Consumer<ExcelRowError> onError) throws IOException {
+        if (onRow == null) {
+            throw new IllegalArgumentException("onRow can not be null");
+        }
+        ImportResult.Builder<T> result = new ImportResult.Builder<>(ImportErrors.of(options));
+        this.doImport(inputStream, options, onRow, onError, result);
+        return result.build(null, null);
+    }
+
+    public ImportResult<T> importExcel(InputStream inputStream, int batchSize, BatchSink<T> sink,
+                                       Consumer<ExcelRowError> onError) throws IOException {
+        return this.importExcel(inputStream, ImportOptions.defaults(), new ExcelBatchWriter<>(sink, batchSize), onError);
+    }
+
+    /***
+     * 分批导入excel，校验通过的行每满 batchSize 条交给 sink 一次
+     * 导入因错误过多或标题行不符提前结束时与导入失败相同，放弃剩余的批次且不调用 sink 的 flush
+     * @param inputStream    excel文件流
+     * @param options        导入参数
+     * @param writer         分批写入器，导入结束后由本方法关闭
+     * @param onError        校验不通过行的错误信息，可以为空
+     * @return 行数统计，不包含行和错误信息
+     * @throws IOException
+     */
+    public ImportResult<T> importExcel(final InputStream inputStream,
+                                       final ImportOptions options,
+                                       final ExcelBatchWriter<T> writer,
+                                       final Consumer<ExcelRowError> onError) throws IOException {
+        ImportResult<T> result;
+        try {
+            result = this.importExcel(inputStream, options, (Consumer<T>) writer, onError);
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+        if (result.isAborted()) {
+            // 提前结束的导入与失败的导入一样不调用 flush，不提交已写入的批次
+            writer.abort();
+        } else {
+            writer.close();
+        }
+        return result;
+    }
+
+    public ExcelImportIterator<T> iterator(InputStream inputStream) {
+        return this.iterator(inputStream, ImportOptions.defaults(), null);
+    }
+
+    /***
+     * 以迭代器的方式导入excel，由后台线程解析文件，通过有界队列逐行交给调用方
+     * 需要使用 try-with-resources 关闭迭代器（包括提前结束时），否则解析线程和文件资源不会释放
+     * 解析线程由导入参数的 threadFactory 创建
+     * @param inputStream    excel文件流
+     * @param options        导入参数
+     * @param onError        校验不通过行的错误信息，在调用方线程中回调，可以为空
+     * @return
+     */
+    public ExcelImportIterator<T> iterator(final InputStream inputStream,
+                                           final ImportOptions options,
+                                           final Consumer<ExcelRowError> onError) {
+        ImportOptions importOptions = options == null ? ImportOptions.defaults() : options;
+        return new ExcelImportIterator<>(onError, importOptions.getThreadFactory(),
+                (onRow, onRowError) -> this.importExcel(inputStream, importOptions, onRow, onRowError));
+    }
+
+    public Stream<T> stream(InputStream inputStream) {
+        return this.stream(inputStream, ImportOptions.defaults(), null);
+    }
+
+    /***
+     * 以Stream的方式导入excel，需要使用 try-with-resources 关闭Stream，关闭时同时关闭迭代器
+     * @param inputStream    excel文件流
+     * @param options        导入参数
+     * @param onError        校验不通过行的错误信息，可以为空
+     * @return
+     */
+    public Stream<T> stream(final InputStream inputStream,
+                            final ImportOptions options,
+                            final Consumer<ExcelRowError> onError) {
+        ExcelImportIterator<T> iterator = this.iterator(inputStream, options, onError);
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * 导入所有未隐藏的 sheet，每个 sheet 使用相同的模板和导入参数，行和错误信息收集在各 sheet 的结果中
+     *
+     * @param inputStream excel文件流
+     * @param options     导入参数，其中的 sheetName 和 sheetIndex 不起作用
+     * @return 按 sheet 顺序排列的 sheet 名称和导入结果
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, ImportResult<T>> importSheets(final InputStream inputStream,
+                                                    final ImportOptions options) throws IOException {
+        SheetImport<T> sheet = SheetImport.of(this, options);
+        Map<String, ImportResult<T>> results = new LinkedHashMap<>();
+        importSheets(inputStream, name -> sheet)
+                .forEach((name, result) -> results.put(name, (ImportResult<T>) result));
+        return results;
+    }
+
+    /***
+     * 依次导入多个 sheet，每个 sheet 可以对应不同的模板、导入参数和回调
+     * 文件只读取一次，sheet 按顺序逐个流式解析；导入参数指定了 executor 时该 sheet 的行并行转换和校验
+     * 隐藏的 sheet（例如下拉框的数据源）不会导入
+     * @param inputStream    excel文件流
+     * @param sheets         按 sheet 名称选择导入方式，返回 null 的 sheet 不导入
+     * @return 按 sheet 顺序排列的 sheet 名称和导入结果
+     * @throws IOException
+     */
+    public static Map<String, ImportResult<?>> importSheets(final InputStream inputStream,
+                                                           final Function<String, SheetImport<?>> sheets) throws IOException {
+        if (sheets == null) {
+            throw new IllegalArgumentException("sheets can not be null");
+        }
+        Map<String, ImportResult<?>> results = new LinkedHashMap<>();
+        if (inputStream == null) {
+            return results;
+        }
+        try (ExcelReader reader = ExcelReader.open(inputStream)) {
+            List<String> names = reader.getSheetNames();
+            for (int i = 0; i < names.size(); i++) {
+                if (reader.isSheetHidden(i)) {
                     continue;
                 }
-                T item = this.createRowObject(row, colInfo);
-                //设置excel物理行数
-                item.setExcelRowIndex(i + 1);
-                Set<ConstraintViolation<T>> violations = validator.validate(item);
-                this.count++;
-
-                if (violations.isEmpty()) {
-                    this.success++;
-                } else {
-                    ExcelRowError error = this.getRowError(i + 1, violations, colInfo, titleMapper);
-                    this.errors.add(error);
-                    item.setHasError(true);
+                SheetImport<?> sheet = sheets.apply(names.get(i));
+                if (sheet != null) {
+                    results.put(names.get(i), importSheet(reader, i, sheet));
                 }
-                list.add(item);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
-        return list;
+        return results;
+    }
+
+    private static <E extends BaseTemplate> ImportResult<E> importSheet(ExcelReader reader, int sheetIndex,
+                                                                       SheetImport<E> sheet) throws IOException {
+        ImportResult.Builder<E> result = new ImportResult.Builder<>(ImportErrors.of(sheet.getOptions()));
+        if (sheet.getOnRow() != null) {
+            sheet.getTemplate().importSheet(reader, sheetIndex, sheet.getOptions(),
+                    sheet.getOnRow(), sheet.getOnError(), result);
+            return result.build(null, null);
+        }
+        List<E> rows = new ArrayList<>();
+        List<ExcelRowError> errors = result.getCompactErrors() == null ? new ArrayList<>() : null;
+        Consumer<ExcelRowError> onError = errors == null ? null : errors::add;
+        if (sheet.getOnError() != null) {
+            onError = onError == null ? sheet.getOnError() : onError.andThen(sheet.getOnError());
+        }
+        sheet.getTemplate().importSheet(reader, sheetIndex, sheet.getOptions(), rows::add, onError, result);
+        return result.build(rows, errors);
     }
 
     /**
-     * 将excel中一行转化为一个对象
-     * @param row
-     * @param colInfo
-     * @return
-     * @throws IllegalAccessException
-     * @throws ParseException
-     * @throws InstantiationException
-     */
-    private T createRowObject(final Row row, final List<ExcelColumnInfo> colInfo)
-            throws IllegalAccessException, ParseException, InstantiationException {
-        T item = clazz.newInstance();
-        for (int index = 0; index < colInfo.size(); index++) {
-            Cell cell = row.getCell(index, Row.MissingCellPolicy.CREATE_NULL_AS_BLANK);
-            ExcelColumnInfo columnInfo = colInfo.get(index);
-            Field field = columnInfo.getField();
-            field.setAccessible(true);
-
-            if (columnInfo.getExcelColumnCodeable() != null) {
-                String codeName = Optional.ofNullable(this.getCellValue(cell.getCellTypeEnum(), cell)).orElse("").toString();
-                if (StringUtils.isEmpty(codeName)) {
-                    field.set(item, "");
-                } else {
-                    String codeValue = Optional.ofNullable(columnInfo.getExcelColumnCodeable().getCode(codeName)).orElse("");
-                    field.set(item, codeValue);
+     * 导入过程，统计信息记录在本次调用的 result 中
+     */
+    private void doImport(final InputStream inputStream,
+                          final ImportOptions options,
+                          final Consumer<T> onRow,
+                          final Consumer<ExcelRowError> onError,
+                          final ImportResult.Builder<T> result) throws IOException {
+        if (inputStream == null) {
+            return;
+        }
+        try (ExcelReader reader = ExcelReader.open(inputStream)) {
+            int sheetIndex = getSheetIndex(reader, options);
+            if (sheetIndex >= 0) {
+                this.importSheet(reader, sheetIndex, options, onRow, onError, result);
+            }
+        }
+    }
+
+    /**
+     * 导入参数指定的 sheet 序号
+     *
+     * @return 工作簿中没有 sheet 时为 -1
+     * @throws IllegalArgumentException 指定的 sheet 不存在
+     */
+    static int getSheetIndex(ExcelReader reader, ImportOptions options) throws IOException {
+        if (StringUtils.isNotEmpty(options.getSheetName())) {
+            int index = reader.getSheetIndex(options.getSheetName());
+            if (index < 0) {
+                throw new IllegalArgumentException("sheet not found: " + options.getSheetName());
+            }
+            return index;
+        }
+        if (options.getSheetIndex() == 0 && reader.getSheetNames().isEmpty()) {
+            return -1;
+        }
+        return options.getSheetIndex();
+    }
+
+    /**
+     * 导入一个 sheet，读取器由调用方关闭
+     */
+    private void importSheet(final ExcelReader reader,
+                             final int sheetIndex,
+                             final ImportOptions options,
+                             final Consumer<T> onRow,
+                             final Consumer<ExcelRowError> onError,
+                             final ImportResult.Builder<T> result) throws IOException {
+        ExcelTemplateSchema schema = ExcelTemplateSchema.of(this.clazz, ctx);
+        Map<String, String> titleMapper = options.getTitleMapper();
+        List<ExcelColumnInfo> colInfo = withCodeCache(schema.getColumns(titleMapper));
+        Validator validator = getValidator(options);
+        // 没有任何约束的模板不需要校验
+        Validator rowValidator = validator.getConstraintsForClass(this.clazz).isBeanConstrained() ? validator : null;
+        Class<?>[] groups = options.getGroups();
+
+        // 单元格与列的对应关系，在解析线程中读到标题行（或第一个数据行）时确定
+        AtomicReference<ColumnBinding> binding = new AtomicReference<>();
+        ImportErrors compactErrors = result.getCompactErrors();
+        Consumer<RowOutcome<T>> output = outcome -> {
+            T item = outcome.item;
+            boolean valid = outcome.violations.isEmpty() && outcome.cellErrors == null;
+            result.row(valid);
+            if (!valid) {
+                item.setHasError(true);
+                if (compactErrors != null) {
+                    compactErrors.add(outcome.rowIndex, outcome.violations, outcome.cellErrors, binding.get());
                 }
+                if (onError != null) {
+                    onError.accept(this.getRowError(outcome.rowIndex, outcome.violations, outcome.cellErrors));
+                }
+            }
+            onRow.accept(item);
+            if (!valid) {
+                checkErrorBudget(options, result);
+            }
+        };
+        Executor executor = options.getExecutor();
+        OrderedPipeline<RowOutcome<T>> pipeline = executor == null ? null
+                : new OrderedPipeline<>(executor, options.getMaxPendingRows(), output);
+
+        Consumer<ExcelRow> process = row -> {
+            ColumnBinding columns = binding.get();
+            if (pipeline == null) {
+                output.accept(this.processRow(row, schema, columns, rowValidator, groups));
             } else {
-                this.setFieldValue(cell, item, columnInfo);
+                pipeline.submit(() -> this.processRow(row, schema, columns, rowValidator, groups));
+            }
+        };
+        // 有 ICodeable 列时按块缓冲行，每块中每列的不同值批量查询一次
+        boolean coded = colInfo.stream().anyMatch(p -> p.getExcelColumnCodeable() != null);
+        List<ExcelRow> chunk = coded ? new ArrayList<>(CODE_CHUNK_SIZE) : null;
+
+        // 读取文件，.xlsx 为流式逐行读取
+        try {
+            reader.read(sheetIndex, row -> {
+                if (row.getRowIndex() == options.getBeginRowNum() - 1) {
+                    binding.set(ColumnBinding.fromHeader(colInfo, row));
+                    if (options.isAbortOnHeaderMismatch()) {
+                        checkHeader(binding.get());
+                    }
+                    return;
+                }
+                if (row.getRowIndex() < options.getBeginRowNum() || row.isEmpty()) {    //跳过全部是空白的行
+                    return;
+                }
+                if (binding.get() == null) {
+                    if (options.isAbortOnHeaderMismatch() && options.getBeginRowNum() > 0) {
+                        throw new ImportAbortedSignal(ImportAbortReason.HEADER_MISMATCH, "没有标题行");
+                    }
+                    binding.set(ColumnBinding.positional(colInfo));
+                }
+                if (chunk == null) {
+                    // 读取器复用行对象，交给其他线程前需要复制
+                    process.accept(pipeline == null ? row : row.copy());
+                    return;
+                }
+                chunk.add(row.copy());
+                if (chunk.size() >= CODE_CHUNK_SIZE) {
+                    prefetchCodes(chunk, binding.get());
+                    chunk.forEach(process);
+                    chunk.clear();
+                }
+            });
+            if (chunk != null && !chunk.isEmpty()) {
+                prefetchCodes(chunk, binding.get());
+                chunk.forEach(process);
+            }
+            if (pipeline != null) {
+                pipeline.finish();
+            }
+            // 文件的行数不足 errorRatioRows 时按全部行计算比例
+            if (result.getCount() < options.getErrorRatioRows()) {
+                checkErrorRatio(options, result, result.getCount());
+            }
+        } catch (ImportAbortedSignal e) {
+            // 提前结束时放弃已解析但未回调的行，读取器由调用方关闭
+            if (pipeline != null) {
+                pipeline.cancel();
+            }
+            result.abort(e.reason, e.getMessage());
+            log.info("excel import aborted after {} rows: {}", result.getCount(), e.getMessage());
+        } catch (IOException | RuntimeException | Error e) {
+            if (pipeline != null) {
+                pipeline.cancel();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 标题行没有任何列的标题或缺少必填列时结束导入
+     */
+    private static void checkHeader(ColumnBinding binding) {
+        if (!binding.isByHeader()) {
+            throw new ImportAbortedSignal(ImportAbortReason.HEADER_MISMATCH, "标题行中没有模板的列");
+        }
+        String missing = binding.getMissingColumns().stream()
+                .filter(ExcelColumnInfo::isRequired)
+                .map(ExcelColumnInfo::getColName)
+                .collect(Collectors.joining(", "));
+        if (!missing.isEmpty()) {
+            throw new ImportAbortedSignal(ImportAbortReason.HEADER_MISMATCH, "标题行缺少必填列: " + missing);
+        }
+    }
+
+    /**
+     * 每个校验不通过的行回调后检查错误数量
+     * 错误行数达到 maxErrors 时立即结束；前 errorRatioRows 行的错误行数超过窗口允许的数量时，
+     * 窗口结束时的比例必然超过 maxErrorRatio，不需要等到读完窗口
+     */
+    private static void checkErrorBudget(ImportOptions options, ImportResult.Builder<?> result) {
+        int errors = result.getErrorCount();
+        if (options.getMaxErrors() > 0 && errors >= options.getMaxErrors()) {
+            throw new ImportAbortedSignal(ImportAbortReason.MAX_ERRORS, "错误行数达到 " + options.getMaxErrors());
+        }
+        if (result.getCount() <= options.getErrorRatioRows()) {
+            checkErrorRatio(options, result, options.getErrorRatioRows());
+        }
+    }
+
+    /**
+     * 按 errors / min(count, errorRatioRows) 检查错误比例，读完文件时行数不足 errorRatioRows 的按实际行数计算
+     *
+     * @param rows 计算比例的行数
+     */
+    private static void checkErrorRatio(ImportOptions options, ImportResult.Builder<?> result, int rows) {
+        if (options.getMaxErrorRatio() > 0 && rows > 0
+                && result.getErrorCount() > options.getMaxErrorRatio() * rows) {
+            throw new ImportAbortedSignal(ImportAbortReason.ERROR_RATIO, "前 " + rows
+                    + " 行的错误比例超过 " + options.getMaxErrorRatio());
+        }
+    }
+
+    /**
+     * 在解析线程中结束读取，由 importSheet 捕获并记录到导入结果中
+     */
+    private static final class ImportAbortedSignal extends RuntimeException {
+        private final ImportAbortReason reason;
+
+        ImportAbortedSignal(ImportAbortReason reason, String message) {
+            super(message, null, false, false);
+            this.reason = reason;
+        }
+    }
+
+    /**
+     * 批量查询一块行中 ICodeable 列的值，结果进入本次导入的缓存
+     */
+    private static void prefetchCodes(List<ExcelRow> rows, ColumnBinding binding) {
+        ExcelColumnInfo[] cells = binding.getCells();
+        for (int index = 0; index < cells.length; index++) {
+            ICodeable codeable = cells[index] == null ? null : cells[index].getExcelColumnCodeable();
+            if (codeable == null) {
+                continue;
+            }
+            try {
+                Set<String> names = new HashSet<>();
+                for (ExcelRow row : rows) {
+                    switch (row.getCellType(index)) {
+                        case STRING:
+                            names.add(row.getString(index));
+                            break;
+                        case NUMBER:
+                            names.add(CellConverters.numberText(row.getNumber(index)));
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                names.remove("");
+                if (!names.isEmpty()) {
+                    codeable.getCodes(names);
+                }
+            } catch (RuntimeException e) {
+                // 批量查询失败时转换过程逐个查询
+                log.warn("prefetch codes of {} failed: {}", cells[index].getName(), e.toString());
+            }
+        }
+    }
+
+    /**
+     * 批量查询一段数据中 ICodeable 列的值，结果进入本次导出的缓存
+     */
+    private static <T> void prefetchNames(List<T> rows, List<ExcelColumnInfo> colInfo) {
+        for (ExcelColumnInfo col : colInfo) {
+            ICodeable codeable = col.getExcelColumnCodeable();
+            if (codeable == null) {
+                continue;
+            }
+            try {
+                Set<String> ids = new HashSet<>();
+                for (T row : rows) {
+                    Object value = col.getAccessor().get(row);
+                    if (value != null) {
+                        ids.add(value.toString());
+                    }
+                }
+                if (!ids.isEmpty()) {
+                    codeable.getNames(ids);
+                }
+            } catch (RuntimeException e) {
+                // 批量查询失败时导出过程逐个查询
+                log.warn("prefetch names of {} failed: {}", col.getName(), e.toString());
             }
         }
-        return item;
+    }
+
+    /**
+     * 转换并校验一行，不修改共享状态，可以在任意线程中执行
+     * 转换失败的单元格记录为 ExcelCellError，对应属性的校验错误不再重复报告
+     *
+     * @param validator 模板没有约束时为 null
+     */
+    private RowOutcome<T> processRow(final ExcelRow row,
+                                     final ExcelTemplateSchema schema,
+                                     final ColumnBinding binding,
+                                     final Validator validator,
+                                     final Class<?>[] groups) {
+        T item = schema.newInstance();
+        List<ExcelCellError> cellErrors = this.bindRow(row, item, binding);
+        //设置excel物理行数
+        int rowIndex = row.getRowIndex() + 1;
+        item.setExcelRowIndex(rowIndex);
+        Set<ConstraintViolation<T>> violations = validator == null
+                ? Collections.emptySet() : validator.validate(item, groups);
+        if (cellErrors != null && !violations.isEmpty()) {
+            Set<String> failed = new HashSet<>();
+            for (ExcelCellError error : cellErrors) {
+                failed.add(error.getFieldName());
+            }
+            violations = violations.stream()
+                    .filter(p -> !failed.contains(p.getPropertyPath().toString()))
+                    .collect(Collectors.toSet());
+        }
+        return new RowOutcome<>(rowIndex, item, violations, cellErrors);
+    }
+
+    private static final class RowOutcome<T> {
+        private final int rowIndex;
+        private final T item;
+        private final Set<ConstraintViolation<T>> violations;
+
+        /**
+         * 没有转换失败的单元格时为 null
+         */
+        private final List<ExcelCellError> cellErrors;
+
+        RowOutcome(int rowIndex, T item, Set<ConstraintViolation<T>> violations, List<ExcelCellError> cellErrors) {
+            this.rowIndex = rowIndex;
+            this.item = item;
+            this.violations = violations;
+            this.cellErrors = cellErrors;
+        }
+    }
+
+    /**
+     * 将excel中一行的值设置到对象上，只访问有对应列的单元格，每个单元格只转换一次
+     * @param row
+     * @param item
+     * @param binding
+     * @return 转换失败的单元格，全部成功时为 null
+     */
+    private List<ExcelCellError> bindRow(final ExcelRow row, final T item, final ColumnBinding binding) {
+        List<ExcelCellError> cellErrors = null;
+        ExcelColumnInfo[] cells = binding.getCells();
+        for (int index = 0; index < cells.length; index++) {
+            ExcelColumnInfo columnInfo = cells[index];
+            if (columnInfo == null) {
+                continue;
+            }
+            try {
+                this.setFieldValue(row, index, item, columnInfo);
+            } catch (IllegalArgumentException e) {
+                if (cellErrors == null) {
+                    cellErrors = new ArrayList<>(2);
+                }
+                cellErrors.add(getCellError(row, index, columnInfo, e));
+            }
+        }
+        return cellErrors;
+    }
+
+    private static ExcelCellError getCellError(ExcelRow row, int col, ExcelColumnInfo columnInfo, IllegalArgumentException e) {
+        ExcelCellError error = new ExcelCellError();
+        error.setColIndex(col);
+        error.setColName(columnInfo.getColName());
+        error.setFieldName(columnInfo.getFieldName());
+        error.setValue(cellValueText(row, col, columnInfo));
+        error.setMessage(e.getMessage() == null ? CONVERSION_MESSAGE : e.getMessage());
+        // 自定义转换器的错误信息不固定，按同一个模板合并
+        error.setMessageTemplate(e instanceof CellConversionException
+                ? ((CellConversionException) e).getMessageTemplate() : CONVERSION_TEMPLATE);
+        return error;
+    }
+
+    /**
+     * 单元格的原始内容，用于错误信息
+     */
+    private static String cellValueText(ExcelRow row, int col, ExcelColumnInfo columnInfo) {
+        switch (row.getCellType(col)) {
+            case STRING:
+                return row.getString(col);
+            case NUMBER:
+                return CellConverters.numberText(row.getNumber(col));
+            case DATE:
+                return DateFormats.format(row.getDate(col), columnInfo.getDateFormatter());
+            case BOOLEAN:
+                return String.valueOf(row.getBoolean(col));
+            default:
+                return "";
+        }
     }
 
     /**
@@ -206,14 +782,12 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
      *
      * @param rowIndex
      * @param violations
-     * @param colInfo
-     * @param titles
+     * @param cellErrors
      * @return
      */
     private ExcelRowError getRowError(Integer rowIndex,
                                       Set<ConstraintViolation<T>> violations,
-                                      List<ExcelColumnInfo> colInfo,
-                                      Map<String, String> titles) {
+                                      List<ExcelCellError> cellErrors) {
         ExcelRowError error = new ExcelRowError();
         error.setRowIndex(rowIndex);
         List<ConstraintViolation> list = new ArrayList<>();
@@ -221,20 +795,26 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
             list.addAll(violations);
         }
         error.setErrors(list);
+        error.setCellErrors(cellErrors == null ? Collections.emptyList() : cellErrors);
         return error;
     }
 
-    private String getFieldName(String field, List<ExcelColumnInfo> colInfo, Map<String, String> titles) {
-        String name = colInfo
-                .stream()
-                .filter(p -> StringUtils.equalsIgnoreCase(field, p.getFieldName()))
-                .map(ExcelColumnInfo::getName)
-                .findFirst()
-                .orElse("");
-        if (titles != null) {
-            return titles.getOrDefault(name, name);
+    /**
+     * ICodeable 列在本次导入导出中使用缓存，已启用全局缓存的列不变
+     *
+     * @param colInfo
+     * @return
+     */
+    private static List<ExcelColumnInfo> withCodeCache(List<ExcelColumnInfo> colInfo) {
+        if (colInfo.stream().allMatch(p -> p.getExcelColumnCodeable() == null
+                || p.getExcelColumnCodeable() instanceof CachedCodeable)) {
+            return colInfo;
         }
-        return name;
+        Map<ICodeable, ICodeable> cached = new IdentityHashMap<>();
+        return colInfo.stream()
+                .map(p -> p.getExcelColumnCodeable() == null ? p
+                        : p.withCodeable(cached.computeIfAbsent(p.getExcelColumnCodeable(), CachedCodeable::of)))
+                .collect(Collectors.toList());
     }
 
     public List<ExcelColumnInfo> getTemplateColumnInfo() {
@@ -242,140 +822,66 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
     }
 
     /**
-     * 获取模板的列属性
+     * 获取模板的列属性，列属性是编译后缓存的只读对象，需要修改标题时使用 withColName
      * @param titleMapper   excel的标题栏映射关系
      * @return
      */
     public List<ExcelColumnInfo> getTemplateColumnInfo(final Map<String, String> titleMapper) {
-        if (this.clazz == null) {
-            throw new IllegalArgumentException("Class Type is null");
-        }
-
-        Field[] declaredFields = clazz.getDeclaredFields();
-        if (declaredFields == null) {
-            return Collections.emptyList();
-        }
-
-        return Arrays.asList(declaredFields)
-                .stream()
-                .filter(p -> p.isAnnotationPresent(ExcelColumn.class))
-                .map(field -> {
-                    ExcelColumn column = field.getAnnotation(ExcelColumn.class);
-                    ExcelColumnInfo columnInfo = new ExcelColumnInfo(column);
-                    if (!column.coding().equals(ICodeable.None.class)) {
-                        columnInfo.setExcelColumnCodeable(ctx.getBean(column.coding()));
-                    }
-
-                    if (field.isAnnotationPresent(IsDate.class)) {
-                        columnInfo.setDateFormat(field.getAnnotation(IsDate.class).format());
-                    }
-
-                    columnInfo.setField(field);
-                    columnInfo.setFieldName(field.getName());
-                    if (titleMapper != null) {
-                        columnInfo.setColName(titleMapper.getOrDefault(column.name(), column.name()));
-                    }
-                    return columnInfo;
-                })
-                .sorted(Comparator.comparing(ExcelColumnInfo::getCol))
-                .collect(Collectors.toList());
+        return ExcelTemplateSchema.of(this.clazz, ctx).getColumns(titleMapper);
     }
 
-    /**
-     * 单元格值取得处理
-     *
-     * @param cell
-     * @return
-     * @throws IllegalAccessException
-     * @throws IllegalArgumentException
-     * @throws ParseException
-     */
-    private void setFieldValue(Cell cell, Object target, ExcelColumnInfo info) throws IllegalArgumentException, IllegalAccessException, ParseException {
-        if (cell == null
-                || target == null
-                || info == null) {
-            return;
-        }
-        Field field = info.getField();
-        Class<?> type = field.getType();
-
-        Object value = this.getCellValue(cell.getCellTypeEnum(), cell);
-        if (value == null) {
-            return;
-        }
-        if (type.isAssignableFrom(value.getClass())) {
-            field.set(target, value);
-        } else {
-            if (type == Date.class) {
-                field.set(target, DateUtils.parseDateStrictly(value.toString(), info.getDateFormat()));
-            } else if (Number.class.isAssignableFrom(type)) {
-                BigDecimal dValue;
-                dValue = new BigDecimal(value.toString());
-                if (field.isAnnotationPresent(Digits.class)) {
-                    Digits digits = field.getAnnotation(Digits.class);
-                    dValue.setScale(digits.fraction());
-                }
-                if (BigDecimal.class.isAssignableFrom(type)) {
-                    field.set(target, dValue);
-                } else if (Integer.class.isAssignableFrom(type) || type.getName().equals("int")) {
-                    field.set(target, dValue.intValue());
-                } else if (Short.class.isAssignableFrom(type) || type.getName().equals("short")) {
-                    field.set(target, dValue.shortValue());
-                } else if (Float.class.isAssignableFrom(type) || type.getName().equals("float")) {
-                    field.set(target, dValue.floatValue());
-                } else if (Byte.class.isAssignableFrom(type) || type.getName().equals("byte")) {
-                    field.set(target, dValue.byteValue());
-                } else if (Double.class.isAssignableFrom(type) || type.getName().equals("double")) {
-                    field.set(target, dValue.doubleValue());
-                } else {
-                    field.set(target, value);
-                }
-            } else if (type == String.class) {
-                if (value.getClass() == Date.class) {
-                    field.set(target, dateFormat((Date) value, info.getDefaultDateFormat()));
-                } else if (value.getClass() == Double.class) {
-                    BigDecimal decimal = new BigDecimal((Double) value);
-                    field.set(target, decimal.stripTrailingZeros().toPlainString());
-                } else {
-                    field.set(target, value.toString());
-                }
-            } else {
-                field.set(target, value);
-            }
-        }
+    /***
+     * 导出错误报告：源文件的内容原样复制，错误的单元格标为红色，每行后面添加错误信息列
+     * 源文件逐行读取并写入输出流，不在内存中保留整个文件；只复制导入的 sheet，输出流不会被关闭
+     * @param source     导入时的源文件
+     * @param options    导入时的参数，用于确定 sheet、标题行和标题映射
+     * @param errors     导入时的行错误
+     * @param out        输出流
+     * @throws IOException
+     */
+    public void writeErrorReport(final InputStream source,
+                                 final ImportOptions options,
+                                 final List<ExcelRowError> errors,
+                                 final OutputStream out) throws IOException {
+        ImportOptions importOptions = options == null ? ImportOptions.defaults() : options;
+        ExcelErrorReport.of(this.getTemplateColumnInfo(importOptions.getTitleMapper()), importOptions,
+                errors == null ? Collections.<ExcelRowError>emptyList() : errors).write(source, out);
     }
 
-    private Object getCellValue(CellType cellType, Cell cell) {
-        Object value = null;
-        switch (cellType) {
-            case NUMERIC:
-                if (HSSFDateUtil.isCellDateFormatted(cell)) {
-                    value = cell.getDateCellValue();
-                } else {
-                    value = new Double(cell.getNumericCellValue());
-                }
-                break;
-            case STRING:
-                value = cell.getRichStringCellValue().getString().trim();
-                break;
-            // 公式类型
-            case FORMULA:
-                value = this.getCellValue(cell.getCachedFormulaResultTypeEnum(), cell);
-                break;
-            // 布尔类型
-            case BOOLEAN:
-                value = new Boolean(cell.getBooleanCellValue());
-                break;
-            // 空值
-            case BLANK:
-                break;
-            // 故障
-            case ERROR:
-                break;
-            default:
-                value = cell.getStringCellValue().trim();
+    /***
+     * 按紧凑形式的行错误导出错误报告，只标出保存了详细错误的行
+     * @param source     导入时的源文件
+     * @param options    导入时的参数，用于确定 sheet、标题行和标题映射
+     * @param errors     导入结果中的 compactErrors
+     * @param out        输出流
+     * @throws IOException
+     */
+    public void writeErrorReport(final InputStream source,
+                                 final ImportOptions options,
+                                 final ImportErrors errors,
+                                 final OutputStream out) throws IOException {
+        if (errors == null) {
+            throw new IllegalArgumentException("errors can not be null");
+        }
+        ImportOptions importOptions = options == null ? ImportOptions.defaults() : options;
+        ExcelErrorReport.of(this.getTemplateColumnInfo(importOptions.getTitleMapper()), importOptions, errors)
+                .write(source, out);
+    }
+
+    /**
+     * 单元格值取得处理
+     *
+     * @param row
+     * @param col
+     * @param target
+     * @param info
+     * @throws IllegalArgumentException 单元格值无法转换为属性类型
+     */
+    private void setFieldValue(ExcelRow row, int col, Object target, ExcelColumnInfo info) {
+        Object fieldValue = CellConverters.convert(info.getConverter(), row, col);
+        if (fieldValue != null) {
+            info.getAccessor().set(target, fieldValue);
         }
-        return value;
     }
 
     /**
@@ -385,9 +891,8 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
      * @param workbook
      * @param cellStyle
      * @param colInfo
-     * @return 这一行数据每一列的宽度推荐
      */
-    private int[] addHeaderRow(Sheet sheet, Workbook workbook, CellStyle cellStyle, List<ExcelColumnInfo> colInfo) {
+    private void addHeaderRow(Sheet sheet, Workbook workbook, CellStyle cellStyle, List<ExcelColumnInfo> colInfo) {
         if (sheet == null
                 || CollectionUtils.isEmpty(colInfo)) {
             throw new IllegalArgumentException("excel column info can not be null");
@@ -400,28 +905,36 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
 
         Row row = sheet.createRow(rowNum);
         int colNum = 0;
-        int[] cellWidth = new int[colInfo.size()];
         for (int colIndex = 0; colIndex < colInfo.size(); colIndex++) {
             ExcelColumnInfo col = colInfo.get(colIndex);
             String cellValue = col.getName();
             if (this.markRequiredProperty
-                    && this.isFieldRequired(col.getField())) {
+                    && col.isRequired()) {
                 cellValue += REQUIRED_MARK;
             }
             Cell cell = row.createCell(colNum);
             cell.setCellValue(cellValue);
             cell.setCellStyle(cellStyle);
-            //根据CodeName去添加下拉框
+            colNum++;
+        }
+    }
+
+    /**
+     * 根据CodeName为 sheet 的数据行添加下拉框，每个 sheet 只添加一次
+     *
+     * @param workbook
+     * @param sheet
+     * @param colInfo
+     * @param maxRows  sheet 的最大行数
+     */
+    private void addDropDownValidations(Workbook workbook, Sheet sheet, List<ExcelColumnInfo> colInfo, int maxRows) {
+        for (int colIndex = 0; colIndex < colInfo.size(); colIndex++) {
+            ExcelColumnInfo col = colInfo.get(colIndex);
             if (col.getExcelColumnCodeable() != null) {
-                CellRangeAddressList range = new CellRangeAddressList(1, EXCEL_LIMIT_ROW_NUM, colIndex, colIndex);
+                CellRangeAddressList range = new CellRangeAddressList(1, maxRows - 1, colIndex, colIndex);
                 this.createDropDownListDataValidation(workbook, sheet, col, range);
             }
-            colNum++;
-            if (col.getName() != null) {
-                cellWidth[colIndex] = col.getName().getBytes().length;
-            }
         }
-        return cellWidth;
     }
 
     /**
@@ -429,43 +942,141 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
      *
      * @param sheet
      * @param data
-     * @return 这一行数据每一列的宽度推荐
+     * @param colInfo
+     * @param types  每一列的单元格类型
+     * @param styles 每一列的样式，日期列为对应格式的样式
+     * @param widths 列宽估算
      */
-    private int[] addDataRow(Sheet sheet, T data, List<ExcelColumnInfo> colInfo) {
+    private void addDataRow(Sheet sheet, T data, List<ExcelColumnInfo> colInfo, ExportType[] types, CellStyle[] styles,
+                            ColumnWidthEstimator widths) {
         Row row = sheet.createRow(sheet.getLastRowNum() + 1);
-        int[] cellWidth = new int[colInfo.size()];
+        boolean sampling = widths.isSampling();
         for (int i = 0; i < colInfo.size(); i++) {
             ExcelColumnInfo col = colInfo.get(i);
             Cell cell = row.createCell(i);
-            col.getField().setAccessible(true);
-            String value = null;
+            if (styles[i] != null) {
+                cell.setCellStyle(styles[i]);
+            }
             try {
-                Class<?> type = col.getField().getType();
-                Object object = col.getField().get(data);
+                Object object = col.getAccessor().get(data);
                 if (object == null) {
                     continue;
-                } else if (type.equals(Date.class)) {
-                    value = dateFormat((Date) object, col.getDefaultDateFormat());
-                } else if (type.equals(BigDecimal.class)) {
-                    value = col.getField().get(data).toString();
-                } else if (type.equals(Integer.class)) {
-                    value = String.valueOf(col.getField().get(data));
-                } else if (col.getExcelColumnCodeable() != null) {
-                    value = col.getExcelColumnCodeable().getName(object.toString());
-                } else {
-                    value = object.toString();
+                }
+                // 数字、布尔只在估算列宽时转为文本，日期列宽按格式估算，不转为文本
+                String value = null;
+                if ((sampling && types[i] != ExportType.DATE) || types[i] == ExportType.TEXT
+                        || (types[i] == ExportType.NUMBER && !isExactNumber((Number) object))) {
+                    value = this.cellText(col, object);
+                }
+                switch (types[i]) {
+                    case NUMBER:
+                        if (isExactNumber((Number) object)) {
+                            cell.setCellValue(((Number) object).doubleValue());
+                            break;
+                        }
+                        cell.setCellValue(value);
+                        break;
+                    case DATE:
+                        cell.setCellValue(DateFormats.toDate(object));
+                        break;
+                    case BOOLEAN:
+                        cell.setCellValue((Boolean) object);
+                        break;
+                    default:
+                        cell.setCellValue(value == null ? "" : value);
+                        break;
+                }
+                if (sampling) {
+                    widths.measure(i, value);
                 }
             } catch (Exception e) {
                 log.error(e.toString());
             }
-            if (value == null) {
-                value = "";
+        }
+        if (sampling) {
+            widths.endRow();
+        }
+    }
+
+    /**
+     * 导出时单元格的类型，每次导出按列计算一次
+     */
+    private enum ExportType {
+        TEXT, NUMBER, DATE, BOOLEAN
+    }
+
+    private static ExportType[] getExportTypes(List<ExcelColumnInfo> colInfo) {
+        ExportType[] types = new ExportType[colInfo.size()];
+        for (int i = 0; i < colInfo.size(); i++) {
+            ExcelColumnInfo col = colInfo.get(i);
+            Class<?> type = ClassUtils.primitiveToWrapper(col.getField().getType());
+            boolean coded = col.getExcelColumnCodeable() != null;
+            if (Date.class.isAssignableFrom(type) || type.equals(LocalDate.class) || type.equals(LocalDateTime.class)) {
+                types[i] = ExportType.DATE;
+            } else if (type.equals(BigDecimal.class) || type.equals(Integer.class)
+                    || (!coded && Number.class.isAssignableFrom(type))) {
+                types[i] = ExportType.NUMBER;
+            } else if (!coded && type.equals(Boolean.class)) {
+                types[i] = ExportType.BOOLEAN;
+            } else {
+                types[i] = ExportType.TEXT;
+            }
+        }
+        return types;
+    }
+
+    /**
+     * 日期列的宽度按列的日期格式固定，不需要格式化每一个日期
+     */
+    private static ColumnWidthEstimator newWidthEstimator(List<ExcelColumnInfo> colInfo, ExportType[] types,
+                                                          int sampleRows) {
+        ColumnWidthEstimator widths = new ColumnWidthEstimator(colInfo, sampleRows);
+        for (int i = 0; i < colInfo.size(); i++) {
+            if (types[i] == ExportType.DATE) {
+                ExcelColumnInfo col = colInfo.get(i);
+                widths.fixDateWidth(i, col.getDateFormatter(), col.getDefaultDateFormat());
             }
-            cellWidth[i] = value.getBytes().length;
-            cell.setCellType(CellType.STRING);
-            cell.setCellValue(value);
         }
-        return cellWidth;
+        return widths;
+    }
+
+    /**
+     * excel 的数字只有15位有效数字，超过的数字以文本导出，避免丢失精度
+     */
+    private static boolean isExactNumber(Number number) {
+        if (number instanceof Double || number instanceof Float) {
+            return !Double.isNaN(number.doubleValue()) && !Double.isInfinite(number.doubleValue());
+        }
+        if (number instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) number;
+            return decimal.signum() == 0 || decimal.stripTrailingZeros().precision() <= 15;
+        }
+        if (number instanceof BigInteger) {
+            return ((BigInteger) number).abs().compareTo(MAX_EXACT_INTEGER) < 0;
+        }
+        return Math.abs(number.longValue()) < MAX_EXACT_INTEGER.longValue();
+    }
+
+    /**
+     * 导出时单元格的文本
+     *
+     * @param col
+     * @param object 属性值，不为空
+     * @return
+     */
+    private String cellText(ExcelColumnInfo col, Object object) {
+        Class<?> type = col.getField().getType();
+        if (object instanceof Date || object instanceof LocalDate || object instanceof LocalDateTime) {
+            return DateFormats.format(object, col.getDateFormatter());
+        } else if (type.equals(BigDecimal.class)) {
+            return object.toString();
+        } else if (type.equals(Integer.class)) {
+            return String.valueOf(object);
+        } else if (col.getExcelColumnCodeable() != null) {
+            return col.getExcelColumnCodeable().getName(object.toString());
+        } else {
+            return object.toString();
+        }
     }
 
     /**
@@ -482,6 +1093,26 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
                               List<String> requireFields,
                               LinkedHashMap<String, String> titles,
                               boolean repeatTitleRow) {
+        this.generateExcel(workbook, list.iterator(), requireFields, titles, repeatTitleRow);
+    }
+
+    public void generateExcel(Workbook workbook,
+                              Iterator<T> rows,
+                              List<String> requireFields,
+                              LinkedHashMap<String, String> titles,
+                              boolean repeatTitleRow) {
+        this.generateExcel(workbook, rows, ExportOptions.of(titles, requireFields, repeatTitleRow));
+    }
+
+    /**
+     * 生成excel的workBook，数据按需从迭代器中读取，内存中最多保留一个批次的数据
+     * sheet 的行数达到 maxRowsPerSheet 时写入新的 sheet，新的 sheet 同样有标题行和下拉框
+     *
+     * @param workbook
+     * @param rows     数据源
+     * @param options  导出参数
+     */
+    public void generateExcel(Workbook workbook, Iterator<T> rows, ExportOptions options) {
         if (workbook == null) {
             workbook = new SXSSFWorkbook(100);
             ((SXSSFWorkbook) workbook).setCompressTempFiles(true);
@@ -490,46 +1121,451 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
         if (workbook.getNumberOfSheets() > 0) {
             sheet = workbook.getSheetAt(0);
         } else {
-            sheet = workbook.createSheet();
+            sheet = workbook.createSheet(options.getSheetName(0));
         }
         CellStyle cellStyle = this.getTitleStyle(workbook);
-        List<ExcelColumnInfo> colInfo = this.getTemplateColumnInfo(titles);
+        List<ExcelColumnInfo> colInfo = this.getExportColumnInfo(options.getTitles(), options.getRequireFields());
+
+        if (CollectionUtils.isNotEmpty(colInfo)) {
+            int maxRows = getMaxRowsPerSheet(options, workbook.getSpreadsheetVersion().getMaxRows());
+            List<Sheet> sheets = new ArrayList<>();
+            sheets.add(sheet);
+            ExportType[] types = getExportTypes(colInfo);
+            ColumnWidthEstimator widths = newWidthEstimator(colInfo, types, options.getWidthSampleRows());
+            CellStyle[] styles = this.getDataStyles(workbook, colInfo, types);
+            this.addHeaderRow(sheet, workbook, cellStyle, colInfo);
+            this.addDropDownValidations(workbook, sheet, colInfo, maxRows);
+            boolean first = true;
+            List<T> chunk = new ArrayList<>(CODE_CHUNK_SIZE);
+            while (rows.hasNext()) {
+                chunk.clear();
+                while (rows.hasNext() && chunk.size() < CODE_CHUNK_SIZE) {
+                    chunk.add(rows.next());
+                }
+                prefetchNames(chunk, colInfo);
+                for (T data : chunk) {
+                    //指定为重复头部的模式
+                    boolean header = !first && options.isRepeatTitleRow();
+                    first = false;
+                    if (sheet.getPhysicalNumberOfRows() + (header ? 2 : 1) > maxRows) {
+                        sheet = workbook.createSheet(options.getSheetName(sheets.size()));
+                        sheets.add(sheet);
+                        this.addDropDownValidations(workbook, sheet, colInfo, maxRows);
+                        header = true;
+                    }
+                    if (header) {
+                        this.addHeaderRow(sheet, workbook, cellStyle, colInfo);
+                    }
+                    this.addDataRow(sheet, data, colInfo, types, styles, widths);
+                }
+            }
+            //调整单元格宽度
+            for (Sheet dataSheet : sheets) {
+                for (int i = 0; i < colInfo.size(); i++) {
+                    dataSheet.setColumnWidth(i, widths.getWidth(i) * 256);
+                }
+            }
+        }
+    }
+
+    /**
+     * 每个 sheet 的最大行数，至少能容纳标题行和一行数据
+     */
+    private static int getMaxRowsPerSheet(ExportOptions options, int formatMaxRows) {
+        int maxRows = options.getMaxRowsPerSheet() > 0
+                ? Math.min(options.getMaxRowsPerSheet(), formatMaxRows) : formatMaxRows;
+        if (maxRows < 2) {
+            throw new IllegalArgumentException("maxRowsPerSheet must be at least 2");
+        }
+        return maxRows;
+    }
+
+    /**
+     * 每一列数据单元格的样式，日期列按格式共用一个样式，其他列为 null
+     */
+    private CellStyle[] getDataStyles(Workbook workbook, List<ExcelColumnInfo> colInfo, ExportType[] types) {
+        CellStyle[] styles = new CellStyle[colInfo.size()];
+        Map<String, CellStyle> dateStyles = new HashMap<>();
+        DataFormat dataFormat = workbook.createDataFormat();
+        for (int i = 0; i < colInfo.size(); i++) {
+            if (types[i] == ExportType.DATE) {
+                styles[i] = dateStyles.computeIfAbsent(colInfo.get(i).getDefaultDateFormat(), format -> {
+                    CellStyle style = workbook.createCellStyle();
+                    style.setDataFormat(dataFormat.getFormat(ExcelFormats.fromDatePattern(format)));
+                    return style;
+                });
+            }
+        }
+        return styles;
+    }
+
+    /**
+     * 导出的列属性
+     *
+     * @param titles        属性名称的映射集合
+     * @param requireFields 需要导出的字段名称，为空时导出全部
+     * @return
+     */
+    private List<ExcelColumnInfo> getExportColumnInfo(Map<String, String> titles, List<String> requireFields) {
+        List<ExcelColumnInfo> colInfo = withCodeCache(this.getTemplateColumnInfo(titles));
         //根据所需要的字段重新组合ColumnInfo
         if (CollectionUtils.isNotEmpty(requireFields)) {
             colInfo = colInfo.stream()
                     .filter(p -> requireFields.contains(p.getFieldName()))
                     .collect(Collectors.toList());
         }
+        return colInfo;
+    }
 
-        if (CollectionUtils.isNotEmpty(colInfo)) {
-            int[] cellWidth = new int[colInfo.size()];
-            int index = 0;
-            do {
-                if (index == 0 || repeatTitleRow) {    //并且是第一行，或者指定为重复头部的模式
-                    this.mergeMaxValue(this.addHeaderRow(sheet, workbook, cellStyle, colInfo), cellWidth);
+    public void writeExcel(OutputStream out, List<T> list, LinkedHashMap<String, String> titles,
+                           List<String> requireFields, boolean repeatTitleRow) throws IOException {
+        this.writeExcel(out, list.iterator(), titles, requireFields, repeatTitleRow);
+    }
+
+    public void writeExcel(OutputStream out, Iterator<T> rows, LinkedHashMap<String, String> titles,
+                           List<String> requireFields, boolean repeatTitleRow) throws IOException {
+        this.writeExcel(out, rows, ExportOptions.of(titles, requireFields, repeatTitleRow));
+    }
+
+    /**
+     * 把excel直接写入输出流，不创建 POI 的 Workbook，不使用临时文件
+     * 适合把大量数据直接写入 http 响应，输出流不会被关闭
+     *
+     * @param out     输出流
+     * @param rows    数据源
+     * @param options 导出参数
+     * @throws IOException
+     */
+    public void writeExcel(OutputStream out, Iterator<T> rows, ExportOptions options) throws IOException {
+        List<ExcelColumnInfo> colInfo = this.getExportColumnInfo(options.getTitles(), options.getRequireFields());
+        try (XlsxStreamWriter workbook = new XlsxStreamWriter(out)) {
+            if (CollectionUtils.isNotEmpty(colInfo)) {
+                this.writeSheets(workbook, workbook::createSheet, rows, colInfo, options);
+            } else {
+                workbook.createSheet(options.getSheetName(0)).close();
+            }
+            writeCodeSheets(workbook, colInfo);
+        }
+    }
+
+    /**
+     * 写入数据，行数超过 maxRowsPerSheet 时写入新的 sheet；列宽按标题和第一批数据估算
+     */
+    private void writeSheets(XlsxStreamWriter workbook, SheetOpener opener, Iterator<T> rows,
+                             List<ExcelColumnInfo> colInfo, ExportOptions options) throws IOException {
+        String[] header = new String[colInfo.size()];
+        for (int i = 0; i < colInfo.size(); i++) {
+            ExcelColumnInfo col = colInfo.get(i);
+            header[i] = this.markRequiredProperty && col.isRequired() ? col.getName() + REQUIRED_MARK : col.getName();
+        }
+
+        ExportType[] types = getExportTypes(colInfo);
+        int[] styles = new int[colInfo.size()];
+        for (int i = 0; i < colInfo.size(); i++) {
+            if (types[i] == ExportType.DATE) {
+                styles[i] = workbook.getFormatStyle(ExcelFormats.fromDatePattern(colInfo.get(i).getDefaultDateFormat()));
+            }
+        }
+
+        int maxRows = getMaxRowsPerSheet(options, XlsxSheetWriter.MAX_ROWS);
+        int sheetCount = 0;
+        double[] widths = null;
+        XlsxSheetWriter sheet = null;
+        List<T> chunk = new ArrayList<>(CODE_CHUNK_SIZE);
+        boolean first = true;
+        do {
+            chunk.clear();
+            while (rows.hasNext() && chunk.size() < CODE_CHUNK_SIZE) {
+                chunk.add(rows.next());
+            }
+            prefetchNames(chunk, colInfo);
+            if (first) {
+                widths = this.estimateWidths(chunk, colInfo, types, options.getWidthSampleRows());
+                sheet = this.createDataSheet(opener, options.getSheetName(sheetCount++), widths, header, colInfo, maxRows);
+            }
+            for (T data : chunk) {
+                //指定为重复头部的模式
+                boolean repeatHeader = !first && options.isRepeatTitleRow();
+                first = false;
+                if (sheet.getRowCount() + (repeatHeader ? 2 : 1) > maxRows) {
+                    sheet.close();
+                    sheet = this.createDataSheet(opener, options.getSheetName(sheetCount++), widths, header, colInfo, maxRows);
+                } else if (repeatHeader) {
+                    this.writeHeaderRow(sheet, header);
                 }
-                if (index < list.size()) {
-                    T data = list.get(index);
-                    this.mergeMaxValue(this.addDataRow(sheet, data, colInfo), cellWidth);
+                sheet.startRow();
+                for (int i = 0; i < colInfo.size(); i++) {
+                    this.writeCell(sheet, i, colInfo.get(i), data, types[i], styles[i]);
+                }
+            }
+        } while (rows.hasNext());
+        sheet.close();
+    }
+
+    /**
+     * 创建数据 sheet，写入标题行和下拉框
+     */
+    private XlsxSheetWriter createDataSheet(SheetOpener opener, String name, double[] widths,
+                                           String[] header, List<ExcelColumnInfo> colInfo,
+                                           int maxRows) throws IOException {
+        XlsxSheetWriter sheet = opener.open(name);
+        sheet.setColumnWidths(widths);
+        this.writeHeaderRow(sheet, header);
+        for (int i = 0; i < colInfo.size(); i++) {
+            if (colInfo.get(i).getExcelColumnCodeable() != null
+                    && CollectionUtils.isNotEmpty(colInfo.get(i).getExcelColumnCodeable().loadCodeList())) {
+                sheet.addListValidation(1, maxRows - 1, i, colInfo.get(i).getName());
+            }
+        }
+        return sheet;
+    }
+
+    /**
+     * 按名称创建 sheet
+     */
+    @FunctionalInterface
+    private interface SheetOpener {
+        XlsxSheetWriter open(String name) throws IOException;
+    }
+
+    /**
+     * 多组数据并行写入同一个excel，每组数据在 executor 中写入各自的 sheet（超过行数时为多个 sheet），
+     * 写入完成的 sheet 按 sheets 的顺序加入工作簿；输出流不会被关闭
+     * 没有指定 sheetName 的一组数据使用 Sheet + 序号 作为名称
+     *
+     * @param out      输出流
+     * @param sheets   每组数据
+     * @param executor 写入 sheet 的线程池
+     * @throws IOException
+     */
+    public static void writeExcel(OutputStream out, List<SheetExport<?>> sheets, Executor executor) throws IOException {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor can not be null");
+        }
+        try (XlsxStreamWriter workbook = new XlsxStreamWriter(out)) {
+            List<CompletableFuture<RenderedSheets>> futures = new ArrayList<>(sheets.size());
+            for (int i = 0; i < sheets.size(); i++) {
+                SheetExport<?> sheet = sheets.get(i);
+                ExportOptions options = StringUtils.isEmpty(sheet.getOptions().getSheetName())
+                        ? sheet.getOptions().toBuilder().sheetName("Sheet" + i).build()
+                        : sheet.getOptions();
+                futures.add(CompletableFuture.supplyAsync(() -> renderSheets(workbook, sheet, options), executor));
+            }
+            List<ExcelColumnInfo> codeColumns = new ArrayList<>();
+            try {
+                for (CompletableFuture<RenderedSheets> future : futures) {
+                    RenderedSheets rendered = future.join();
+                    for (int i = 0; i < rendered.names.size(); i++) {
+                        workbook.addSheetPart(rendered.names.get(i), false, rendered.parts.get(i));
+                    }
+                    rendered.parts.clear();
+                    codeColumns.addAll(rendered.colInfo);
+                }
+            } catch (CompletionException e) {
+                discardSheets(workbook, futures);
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                discardSheets(workbook, futures);
+                throw e;
+            }
+            writeCodeSheets(workbook, codeColumns);
+        }
+    }
+
+    /**
+     * 在写入线程中把一组数据写入临时的 sheet
+     */
+    private static <E extends BaseTemplate> RenderedSheets renderSheets(XlsxStreamWriter workbook,
+                                                                       SheetExport<E> sheet,
+                                                                       ExportOptions options) {
+        ExcelTemplate<E> template = sheet.getTemplate();
+        RenderedSheets rendered = new RenderedSheets();
+        try {
+            rendered.colInfo = template.getExportColumnInfo(options.getTitles(), options.getRequireFields());
+            SheetOpener opener = name -> {
+                XlsxSheetWriter part = workbook.createSheetPart();
+                rendered.names.add(name);
+                rendered.parts.add(part);
+                return part;
+            };
+            if (CollectionUtils.isNotEmpty(rendered.colInfo)) {
+                template.writeSheets(workbook, opener, sheet.getRows(), rendered.colInfo, options);
+            } else {
+                opener.open(options.getSheetName(0)).close();
+            }
+            return rendered;
+        } catch (IOException e) {
+            rendered.discard(workbook);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException | Error e) {
+            rendered.discard(workbook);
+            throw e;
+        }
+    }
+
+    /**
+     * 导出失败时等待其他 sheet 结束并删除临时文件
+     */
+    private static void discardSheets(XlsxStreamWriter workbook, List<CompletableFuture<RenderedSheets>> futures) {
+        for (CompletableFuture<RenderedSheets> future : futures) {
+            try {
+                future.join().discard(workbook);
+            } catch (CompletionException | CancellationException ignored) {
+                // 失败的 sheet 已经删除了临时文件
+            }
+        }
+    }
+
+    private static final class RenderedSheets {
+        private final List<String> names = new ArrayList<>();
+        private final List<XlsxSheetWriter> parts = new ArrayList<>();
+        private List<ExcelColumnInfo> colInfo = Collections.emptyList();
+
+        void discard(XlsxStreamWriter workbook) {
+            this.parts.forEach(workbook::discardSheetPart);
+            this.parts.clear();
+        }
+    }
+
+    private void writeHeaderRow(XlsxSheetWriter sheet, String[] header) throws IOException {
+        sheet.startRow();
+        for (int i = 0; i < header.length; i++) {
+            sheet.writeString(i, header[i], XlsxStreamWriter.HEADER_STYLE);
+        }
+    }
+
+    /**
+     * 下拉框的数据源，每个 ICodeable 列一个隐藏的 sheet
+     */
+    private static void writeCodeSheets(XlsxStreamWriter workbook, List<ExcelColumnInfo> colInfo) throws IOException {
+        for (ExcelColumnInfo col : colInfo) {
+            if (col.getExcelColumnCodeable() == null) {
+                continue;
+            }
+            String codeType = col.getName();
+            if (StringUtils.isEmpty(codeType)) {
+                throw new IllegalArgumentException("the name value of excelColumn cannot be empty.");
+            }
+            List<? extends ICodeBean> beans = col.getExcelColumnCodeable().loadCodeList();
+            if (CollectionUtils.isEmpty(beans) || workbook.hasSheet(codeType)) {
+                continue;
+            }
+            XlsxSheetWriter sheet = workbook.createSheet(codeType, true);
+            for (ICodeBean bean : beans) {
+                sheet.startRow();
+                sheet.writeString(0, bean.codeName());
+            }
+            sheet.close();
+            workbook.defineName(codeType, "'" + codeType.replace("'", "''") + "'!$A$1:$A$" + beans.size());
+        }
+    }
+
+    /**
+     * 按列的类型写入单元格，转换失败时记录日志并留空
+     */
+    private void writeCell(XlsxSheetWriter sheet, int index, ExcelColumnInfo col, T data,
+                           ExportType type, int style) throws IOException {
+        Object object;
+        try {
+            object = col.getAccessor().get(data);
+        } catch (Exception e) {
+            log.error(e.toString());
+            return;
+        }
+        if (object == null) {
+            return;
+        }
+        // 数字、日期、布尔按值写入，不需要转为文本
+        switch (type) {
+            case NUMBER:
+                if (object instanceof BigDecimal && isExactNumber((Number) object)) {
+                    sheet.writeNumber(index, ((BigDecimal) object).toPlainString(), style);
+                } else if (isExactNumber((Number) object)) {
+                    sheet.writeNumber(index, ((Number) object).doubleValue(), style);
+                } else {
+                    this.writeText(sheet, index, col, object, style);
+                }
+                break;
+            case DATE:
+                sheet.writeNumber(index, DateUtil.getExcelDate(DateFormats.toDate(object)), style);
+                break;
+            case BOOLEAN:
+                sheet.writeBoolean(index, (Boolean) object, style);
+                break;
+            default:
+                this.writeText(sheet, index, col, object, style);
+                break;
+        }
+    }
+
+    /**
+     * 以文本写入单元格，转换失败时记录日志并跳过该单元格
+     */
+    private void writeText(XlsxSheetWriter sheet, int index, ExcelColumnInfo col, Object object,
+                           int style) throws IOException {
+        String value;
+        try {
+            value = this.cellText(col, object);
+        } catch (Exception e) {
+            log.error(e.toString());
+            return;
+        }
+        if (StringUtils.isNotEmpty(value)) {
+            sheet.writeString(index, value, style);
+        }
+    }
+
+    /**
+     * 导出时单元格的文本，转换失败时记录日志并返回 null
+     */
+    private String exportText(ExcelColumnInfo col, T data) {
+        try {
+            Object object = col.getAccessor().get(data);
+            return object == null ? null : this.cellText(col, object);
+        } catch (Exception e) {
+            log.error(e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 按第一批数据估算列宽，日期列按格式估算
+     */
+    private double[] estimateWidths(List<T> chunk, List<ExcelColumnInfo> colInfo, ExportType[] types, int sampleRows) {
+        ColumnWidthEstimator widths = newWidthEstimator(colInfo, types, sampleRows);
+        for (T data : chunk) {
+            if (!widths.isSampling()) {
+                break;
+            }
+            for (int i = 0; i < colInfo.size(); i++) {
+                if (types[i] != ExportType.DATE) {
+                    widths.measure(i, this.exportText(colInfo.get(i), data));
                 }
-                index++;
-            } while (index < list.size());
-            //调整单元格宽度
-            for (int i = 0; i < cellWidth.length; i++) {
-                sheet.setColumnWidth(i, Math.min(255, cellWidth[i]) * 256);
             }
+            widths.endRow();
         }
+        return widths.getWidths();
     }
 
     /**
      * 为Excel根据Coding注释，创建下拉选择框
+     * 只用于导出过程，列属性来自编译的模板，不接受调用方构造的列属性
      *
      * @param workbook
      * @param targetSheet
      * @param excelColumn
      * @param range
      */
-    public void createDropDownListDataValidation(Workbook workbook, Sheet targetSheet,
+    void createDropDownListDataValidation(Workbook workbook, Sheet targetSheet,
                                                  ExcelColumnInfo excelColumn, CellRangeAddressList range) {
         if (workbook == null || targetSheet == null
                 || excelColumn == null || excelColumn.getExcelColumnCodeable() == null || range == null) {
@@ -572,19 +1608,36 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
     }
 
     public Workbook generateExcel(List<T> list, LinkedHashMap<String, String> titles, List<String> requireFields, boolean repeatTitleRow) {
+        return this.generateExcel(list.iterator(), titles, requireFields, repeatTitleRow);
+    }
+
+    public Workbook generateExcel(Iterator<T> rows, LinkedHashMap<String, String> titles, List<String> requireFields, boolean repeatTitleRow) {
+        return this.generateExcel(rows, ExportOptions.of(titles, requireFields, repeatTitleRow));
+    }
+
+    public Workbook generateExcel(Iterator<T> rows, ExportOptions options) {
         SXSSFWorkbook workbook = new SXSSFWorkbook(100);
         workbook.setCompressTempFiles(true);
-        this.generateExcel(workbook, list, requireFields, titles, repeatTitleRow);
+        this.generateExcel(workbook, rows, options);
         return workbook;
     }
 
-    private void mergeMaxValue(int[] input, int[] target) {
-        if (input == null || target == null) {
-            return;
-        }
-        for (int i = 0; i < input.length && i < target.length; i++) {
-            target[i] = Math.max(input[i], target[i]);
-        }
+    /**
+     * 从 Stream 导出，Stream 由调用方关闭
+     */
+    public Workbook generateExcel(Stream<T> rows, LinkedHashMap<String, String> titles, List<String> requireFields, boolean repeatTitleRow) {
+        return this.generateExcel(rows.iterator(), titles, requireFields, repeatTitleRow);
+    }
+
+    /**
+     * 分页查询并导出，每次只查询一页数据
+     *
+     * @param pages    分页查询
+     * @param pageSize 每页的数量
+     */
+    public Workbook generateExcel(PageSupplier<T> pages, int pageSize, LinkedHashMap<String, String> titles,
+                                  List<String> requireFields, boolean repeatTitleRow) {
+        return this.generateExcel(pages.iterator(pageSize), titles, requireFields, repeatTitleRow);
     }
 
     /**
@@ -618,49 +1671,18 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
     }
 
     /**
-     * 判断某一行是否是空白的
-     *
-     * @param row
-     * @return
-     */
-    private boolean isRowEmpty(Row row) {
-        if (row == null) {
-            return true;
-        }
-        for (int c = row.getFirstCellNum(); c < row.getLastCellNum(); c++) {
-            Cell cell = row.getCell(c);
-            if (cell != null
-                    && cell.getCellTypeEnum() != CellType.BLANK) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    /**
-     * 是否标注为必填字段
+     * 把日期转为字符串，格式按 SimpleDateFormat 的含义解释
+     * 使用缓存的 DateTimeFormatter，格式中有 SimpleDateFormat 不支持的字母（如 n）时返回 null，
+     * 不再像 DateTimeFormatter.ofPattern 那样把 n 解释为纳秒
      *
-     * @param field
+     * @param date
+     * @param format SimpleDateFormat 格式
      * @return
      */
-    private boolean isFieldRequired(Field field) {
-        if (field == null) {
-            return false;
-        }
-        return field.isAnnotationPresent(NotNull.class)
-                || field.isAnnotationPresent(NotEmpty.class)
-                || field.isAnnotationPresent(NotBlank.class);
-    }
-
-    // 把日期转为字符串
     public static String dateFormat(Date date, String format) {
         if (date != null) {
-            SimpleDateFormat sdf = new SimpleDateFormat();
-            sdf.setLenient(false);
-            sdf.applyPattern(format);
-
             try {
-                return sdf.format(date);
+                return DateFormats.format(date, DateFormats.formatter(format));
             } catch (Exception ex) {
                 return null;
             }
@@ -668,4 +1690,4 @@ public class ExcelTemplate<T extends BaseTemplate> implements ApplicationContext
             return null;
         }
     }
-}
\ No newline at end of file
+}
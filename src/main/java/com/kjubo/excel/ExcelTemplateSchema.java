@@ -0,0 +1,206 @@
+package com.kjubo.excel;
+
+import com.kjubo.excel.bind.FieldAccessors;
+import com.kjubo.excel.validation.annotation.IsDate;
+import lombok.Getter;
+import org.springframework.context.ApplicationContext;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 模板类编译后的列属性
+ * 每个模板类只扫描一次注解、解析一次 ICodeable，结果全局缓存
+ */
+public final class ExcelTemplateSchema {
+
+    /**
+     * 每个模板类最多缓存的标题映射数量
+     */
+    private static final int MAX_TITLE_MAPPERS = 64;
+
+    private static final Map<Class<?>, ExcelTemplateSchema> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 全局的 ICodeable 缓存，同一个 ICodeable 在所有模板中共用
+     */
+    private static final Map<ICodeable, CachedCodeable> CODE_CACHES = new ConcurrentHashMap<>();
+
+    /**
+     * 全局 ICodeable 缓存的有效期，小于0时不使用全局缓存
+     */
+    private static volatile long codeCacheTtlMillis = -1;
+    private static volatile int codeCacheMaxSize = CachedCodeable.DEFAULT_MAX_SIZE;
+
+    @Getter
+    private final Class<?> templateClass;
+
+    /**
+     * 按 col 排序的列属性
+     */
+    @Getter
+    private final List<ExcelColumnInfo> columns;
+
+    private final Supplier<?> constructor;
+
+    private final Map<Map<String, String>, List<ExcelColumnInfo>> titledColumns = new ConcurrentHashMap<>();
+
+    private ExcelTemplateSchema(Class<?> templateClass, List<ExcelColumnInfo> columns) {
+        this.templateClass = templateClass;
+        this.columns = Collections.unmodifiableList(columns);
+        this.constructor = createConstructor(templateClass);
+    }
+
+    /**
+     * 获取模板类的列属性，首次调用时编译
+     *
+     * @param clazz 模板类
+     * @param ctx   用于获取 ICodeable 的 spring 上下文
+     * @return
+     */
+    public static ExcelTemplateSchema of(Class<?> clazz, ApplicationContext ctx) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("Class Type is null");
+        }
+        ExcelTemplateSchema schema = CACHE.get(clazz);
+        if (schema == null) {
+            schema = compile(clazz, ctx);
+            ExcelTemplateSchema previous = CACHE.putIfAbsent(clazz, schema);
+            if (previous != null) {
+                schema = previous;
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * 清空缓存，spring 上下文变更时调用
+     */
+    public static void clear() {
+        clearSchemas();
+        CODE_CACHES.clear();
+    }
+
+    /**
+     * 只清空编译的列属性（包括按标题映射生成的列属性），注册转换器时调用
+     * 全局的 ICodeable 缓存保留，重新编译的列继续使用已加载的缓存
+     */
+    public static void clearSchemas() {
+        CACHE.clear();
+    }
+
+    /**
+     * 启用全局的 ICodeable 缓存，缓存在多次导入导出之间共用，过期后重新加载 loadCodeList
+     * 未启用时每次导入导出单独缓存
+     *
+     * @param ttl     有效期，为0时不过期
+     * @param unit
+     * @param maxSize 每个 ICodeable 最多缓存的映射数量
+     */
+    public static void enableCodeCache(long ttl, TimeUnit unit, int maxSize) {
+        if (ttl < 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("ttl must not be negative and maxSize must be positive");
+        }
+        codeCacheTtlMillis = unit.toMillis(ttl);
+        codeCacheMaxSize = maxSize;
+        clear();
+    }
+
+    public static void disableCodeCache() {
+        codeCacheTtlMillis = -1;
+        clear();
+    }
+
+    /**
+     * 全局 ICodeable 缓存，用于查看命中统计
+     *
+     * @return
+     */
+    public static Collection<CachedCodeable> getCodeCaches() {
+        return Collections.unmodifiableCollection(CODE_CACHES.values());
+    }
+
+    /**
+     * 创建模板类的实例
+     *
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T newInstance() {
+        if (this.constructor == null) {
+            throw new IllegalStateException("can not create instance of " + this.templateClass.getName());
+        }
+        return (T) this.constructor.get();
+    }
+
+    /**
+     * 获取按标题映射后的列属性
+     *
+     * @param titleMapper excel的标题栏映射关系，可以为空
+     * @return
+     */
+    public List<ExcelColumnInfo> getColumns(Map<String, String> titleMapper) {
+        if (titleMapper == null || titleMapper.isEmpty()) {
+            return this.columns;
+        }
+        List<ExcelColumnInfo> titled = this.titledColumns.get(titleMapper);
+        if (titled == null) {
+            titled = Collections.unmodifiableList(this.columns
+                    .stream()
+                    .map(p -> p.withColName(titleMapper.getOrDefault(p.getName(), p.getName())))
+                    .collect(Collectors.toList()));
+            if (this.titledColumns.size() < MAX_TITLE_MAPPERS) {
+                this.titledColumns.putIfAbsent(new HashMap<>(titleMapper), titled);
+            }
+        }
+        return titled;
+    }
+
+    private static ExcelTemplateSchema compile(Class<?> clazz, ApplicationContext ctx) {
+        List<ExcelColumnInfo> columns = Arrays.stream(clazz.getDeclaredFields())
+                .filter(p -> p.isAnnotationPresent(ExcelColumn.class))
+                .map(field -> compileColumn(field, ctx))
+                .sorted(Comparator.comparing(ExcelColumnInfo::getCol))
+                .collect(Collectors.toList());
+        return new ExcelTemplateSchema(clazz, columns);
+    }
+
+    /**
+     * 抽象类或没有无参构造器的模板只能用于导出
+     */
+    private static Supplier<?> createConstructor(Class<?> clazz) {
+        if (Modifier.isAbstract(clazz.getModifiers())) {
+            return null;
+        }
+        try {
+            return FieldAccessors.constructor(clazz);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ExcelColumnInfo compileColumn(Field field, ApplicationContext ctx) {
+        ExcelColumn column = field.getAnnotation(ExcelColumn.class);
+        ICodeable codeable = null;
+        if (!column.coding().equals(ICodeable.None.class)) {
+            codeable = ctx.getBean(column.coding());
+            long ttl = codeCacheTtlMillis;
+            if (ttl >= 0) {
+                codeable = CODE_CACHES.computeIfAbsent(codeable,
+                        p -> new CachedCodeable(p, ttl, TimeUnit.MILLISECONDS, codeCacheMaxSize));
+            }
+        }
+        String[] dateFormat = null;
+        if (field.isAnnotationPresent(IsDate.class)) {
+            dateFormat = field.getAnnotation(IsDate.class).format();
+        }
+        field.setAccessible(true);
+        return new ExcelColumnInfo(column, field, codeable, dateFormat);
+    }
+}
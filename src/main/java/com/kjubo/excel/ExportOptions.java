@@ -0,0 +1,89 @@
+package com.kjubo.excel;
+
+import com.kjubo.excel.writer.XlsxStreamWriter;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次导出的参数，创建后不可修改，可以在多次导出中共用
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class ExportOptions {
+
+    /**
+     * 属性名称的映射集合，可以为空
+     */
+    private final Map<String, String> titles;
+
+    /**
+     * 需要导出的字段名称，为空时导出全部
+     */
+    private final List<String> requireFields;
+
+    /**
+     * 头部是否需要重复
+     */
+    private final boolean repeatTitleRow;
+
+    /**
+     * 每个 sheet 的最大行数（包括标题行），超过时写入下一个 sheet，并重复标题行和下拉框
+     * 小于等于0时使用文件格式允许的最大行数
+     */
+    private final int maxRowsPerSheet;
+
+    /**
+     * sheet 名称，为空时依次为 Sheet0、Sheet1 ...；
+     * 不为空时第一个 sheet 使用该名称，之后依次为 名称(2)、名称(3) ...；
+     * 超过31个字符时截短名称，不能包含 []:*?/\
+     */
+    private final String sheetName;
+
+    /**
+     * 按前多少行数据估算列宽，小于0时按全部数据估算
+     * 直接写入输出流时列宽需要在数据之前写入，最多按第一批（512行）数据估算
+     */
+    @Builder.Default
+    private final int widthSampleRows = -1;
+
+    public static ExportOptions defaults() {
+        return ExportOptions.builder().build();
+    }
+
+    /**
+     * 兼容按标题映射、字段和重复标题行导出的参数
+     */
+    public static ExportOptions of(Map<String, String> titles, List<String> requireFields, boolean repeatTitleRow) {
+        return ExportOptions.builder()
+                .titles(titles)
+                .requireFields(requireFields)
+                .repeatTitleRow(repeatTitleRow)
+                .build();
+    }
+
+    /**
+     * 第 index 个 sheet 的名称，从0开始
+     *
+     * @param index
+     * @return
+     */
+    public String getSheetName(int index) {
+        if (this.sheetName == null || this.sheetName.isEmpty()) {
+            return "Sheet" + index;
+        }
+        String suffix = index == 0 ? "" : "(" + (index + 1) + ")";
+        // sheet 名称最多31个字符，截短名称使序号不被截掉
+        int length = XlsxStreamWriter.MAX_SHEET_NAME_LENGTH - suffix.length();
+        String name = this.sheetName;
+        if (name.length() > length) {
+            if (Character.isHighSurrogate(name.charAt(length - 1))) {
+                length--;
+            }
+            name = name.substring(0, length);
+        }
+        return name + suffix;
+    }
+}
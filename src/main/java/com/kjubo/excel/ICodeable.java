@@ -1,7 +1,10 @@
 package com.kjubo.excel;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by kjubo on 2017/4/19
@@ -31,6 +34,38 @@ public interface ICodeable {
      */
     String getCode(String name);
 
+    /**
+     * 批量通过ID获取Name，导出时按批调用，查询数据库的实现应覆盖此方法一次查询
+     * @param ids
+     * @return 查不到的ID不包含在结果中
+     */
+    default Map<String, String> getNames(Collection<String> ids) {
+        Map<String, String> names = new HashMap<>();
+        for (String id : ids) {
+            String name = this.getName(id);
+            if (name != null) {
+                names.put(id, name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 批量通过Name获取Id，导入时按批调用，查询数据库的实现应覆盖此方法一次查询
+     * @param names
+     * @return 查不到的Name不包含在结果中
+     */
+    default Map<String, String> getCodes(Collection<String> names) {
+        Map<String, String> codes = new HashMap<>();
+        for (String name : names) {
+            String code = this.getCode(name);
+            if (code != null) {
+                codes.put(name, code);
+            }
+        }
+        return codes;
+    }
+
     class None implements ICodeable {
 
         @Override
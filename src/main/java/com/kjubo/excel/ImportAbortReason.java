@@ -0,0 +1,22 @@
+package com.kjubo.excel;
+
+/**
+ * 导入提前结束的原因
+ */
+public enum ImportAbortReason {
+
+    /**
+     * 校验不通过的行数达到 maxErrors
+     */
+    MAX_ERRORS,
+
+    /**
+     * 前 errorRatioRows 行中校验不通过的比例超过 maxErrorRatio
+     */
+    ERROR_RATIO,
+
+    /**
+     * 标题行与模板不符：没有任何列的标题，或缺少必填列
+     */
+    HEADER_MISMATCH
+}
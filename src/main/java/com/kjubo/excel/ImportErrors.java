@@ -0,0 +1,174 @@
+package com.kjubo.excel;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 以紧凑形式收集一次导入的行错误
+ * 相同的错误只按模板保存一份，每行只保存列序号、错误序号和值的文本，错误信息在读取时生成；
+ * 指定 maxDetails 时只保存前 maxDetails 行的详细错误，其余的行只计入按列和约束的统计
+ * 导入过程中只在解析线程中修改，导入结束后可以在其他线程中读取
+ */
+public final class ImportErrors {
+
+    /**
+     * 保存的校验值文本的最大长度
+     */
+    private static final int MAX_VALUE_LENGTH = 200;
+
+    private final int maxDetails;
+    private final List<ExcelErrorCode> codes = new ArrayList<>();
+    private final Map<String, ExcelErrorCode> byKey = new HashMap<>();
+    private final List<CompactRowError> rows = new ArrayList<>();
+    private final List<ExcelErrorCode> codeView = Collections.unmodifiableList(this.codes);
+    private int errorRows = 0;
+
+    /**
+     * @param maxDetails 保存详细错误的最大行数，0 表示不限制
+     */
+    public ImportErrors(int maxDetails) {
+        if (maxDetails < 0) {
+            throw new IllegalArgumentException("maxDetails can not be negative");
+        }
+        this.maxDetails = maxDetails;
+    }
+
+    /**
+     * 按导入参数创建
+     *
+     * @param options
+     * @return 导入参数没有启用 compactErrors 时为 null
+     */
+    static ImportErrors of(ImportOptions options) {
+        return options.isCompactErrors() ? new ImportErrors(options.getMaxErrorDetails()) : null;
+    }
+
+    /**
+     * 记录一行的错误，转换失败的单元格在前
+     */
+    void add(int rowIndex, Collection<? extends ConstraintViolation<?>> violations,
+             List<ExcelCellError> cellErrors, ColumnBinding binding) {
+        this.errorRows++;
+        int size = violations.size() + (cellErrors == null ? 0 : cellErrors.size());
+        boolean detail = this.maxDetails == 0 || this.rows.size() < this.maxDetails;
+        int[] colIndexes = detail ? new int[size] : null;
+        int[] codeIds = detail ? new int[size] : null;
+        String[] values = detail ? new String[size] : null;
+        int i = 0;
+        if (cellErrors != null) {
+            for (ExcelCellError error : cellErrors) {
+                String template = error.getMessageTemplate() == null ? error.getMessage() : error.getMessageTemplate();
+                ExcelErrorCode code = this.intern(error.getFieldName(), error.getColName() == null ? "" : error.getColName(),
+                        ExcelErrorCode.CONVERSION, template, error.getMessage(), null);
+                if (detail) {
+                    colIndexes[i] = error.getColIndex();
+                    codeIds[i] = code.getId();
+                    values[i] = snapshot(error.getValue());
+                }
+                i++;
+            }
+        }
+        for (ConstraintViolation<?> violation : violations) {
+            String fieldName = violation.getPropertyPath().toString();
+            ExcelColumnInfo column = binding == null ? null : binding.getColumn(fieldName);
+            ExcelErrorCode code = this.intern(fieldName, column == null ? "" : column.getColName(),
+                    violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName(),
+                    violation.getMessageTemplate(), violation.getMessage(), violation.getConstraintDescriptor());
+            if (detail) {
+                colIndexes[i] = binding == null ? -1 : binding.getCellIndex(fieldName);
+                codeIds[i] = code.getId();
+                values[i] = snapshot(violation.getInvalidValue());
+            }
+            i++;
+        }
+        if (detail) {
+            this.rows.add(new CompactRowError(rowIndex, colIndexes, codeIds, values, this.codeView));
+        }
+    }
+
+    /**
+     * 按属性、约束和错误信息模板去重，错误信息中的值只保存在行错误中，错误的种类不随行数增长
+     */
+    private ExcelErrorCode intern(String fieldName, String colName, String constraint,
+                                  String messageTemplate, String message, ConstraintDescriptor<?> descriptor) {
+        String key = fieldName + '\0' + constraint + '\0' + messageTemplate;
+        ExcelErrorCode code = this.byKey.get(key);
+        if (code == null) {
+            code = new ExcelErrorCode(this.codes.size(), fieldName, colName, constraint,
+                    messageTemplate, message, descriptor);
+            this.codes.add(code);
+            this.byKey.put(key, code);
+        }
+        code.increment();
+        return code;
+    }
+
+    /**
+     * 值的文本，过长时截断
+     */
+    private static String snapshot(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString();
+        return text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) : text;
+    }
+
+    /**
+     * 保存了详细错误的行，按行的顺序排列
+     *
+     * @return
+     */
+    public List<CompactRowError> getRowErrors() {
+        return Collections.unmodifiableList(this.rows);
+    }
+
+    /**
+     * 校验不通过的总行数
+     *
+     * @return
+     */
+    public int getErrorRows() {
+        return this.errorRows;
+    }
+
+    /**
+     * 是否有校验不通过的行没有保存详细错误
+     *
+     * @return
+     */
+    public boolean isTruncated() {
+        return this.rows.size() < this.errorRows;
+    }
+
+    /**
+     * 本次导入中出现过的错误，按第一次出现的顺序排列
+     *
+     * @return
+     */
+    public List<ExcelErrorCode> getCodes() {
+        return this.codeView;
+    }
+
+    /**
+     * 按列和约束统计的错误数量：列标题（不是模板列时为属性路径） -&gt; 约束名称 -&gt; 数量
+     *
+     * @return
+     */
+    public Map<String, Map<String, Integer>> getCounts() {
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (ExcelErrorCode code : this.codes) {
+            String column = code.getColName().isEmpty() ? code.getFieldName() : code.getColName();
+            counts.computeIfAbsent(column, k -> new LinkedHashMap<>())
+                    .merge(code.getConstraint(), code.getCount(), Integer::sum);
+        }
+        return counts;
+    }
+}
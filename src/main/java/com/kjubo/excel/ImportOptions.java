@@ -0,0 +1,124 @@
+package com.kjubo.excel;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import javax.validation.Validator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 一次导入的参数，创建后不可修改，可以在多次导入中共用
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class ImportOptions {
+
+    private static final Class<?>[] NO_GROUPS = new Class<?>[0];
+
+    /**
+     * 标题转化数据，可以为空
+     */
+    private final Map<String, String> titleMapper;
+
+    /**
+     * excel数据开始行，默认值为1
+     */
+    @Builder.Default
+    private final int beginRowNum = 1;
+
+    /**
+     * 导入的sheet页名称，不为空时忽略 sheetIndex
+     */
+    private final String sheetName;
+
+    /**
+     * 导入的sheet页序号，从0开始，默认导入第一个sheet页
+     */
+    @Builder.Default
+    private final int sheetIndex = 0;
+
+    /**
+     * 校验分组，为空时使用默认分组
+     */
+    @Builder.Default
+    private final Class<?>[] groups = NO_GROUPS;
+
+    /**
+     * 本次导入使用的校验器，为空时使用 ExcelTemplate 共用的校验器
+     */
+    private final Validator validator;
+
+    /**
+     * 转换和校验使用的线程池，为空时在解析线程中逐行处理
+     * 不为空时解析线程只负责读取，结果仍按行的顺序回调
+     */
+    private final Executor executor;
+
+    /**
+     * 迭代器和 Stream 导入时创建解析线程的线程工厂，为空时创建名为 sqexcel-import 的守护线程
+     */
+    private final ThreadFactory threadFactory;
+
+    /**
+     * 并行处理时已解析但未回调的最大行数
+     */
+    @Builder.Default
+    private final int maxPendingRows = 1024;
+
+    /**
+     * 校验不通过的行数达到该值时结束导入，1 表示遇到第一个错误即结束，0 表示不限制
+     */
+    @Builder.Default
+    private final int maxErrors = 0;
+
+    /**
+     * 前 errorRatioRows 行中校验不通过的比例超过该值（0 ~ 1）时结束导入，0 表示不限制
+     * 文件不足 errorRatioRows 行时读完后按全部行计算
+     */
+    @Builder.Default
+    private final double maxErrorRatio = 0;
+
+    /**
+     * 计算错误比例的行数
+     */
+    @Builder.Default
+    private final int errorRatioRows = 1000;
+
+    /**
+     * 标题行没有任何列的标题或缺少必填列时结束导入，不再按列顺序对应
+     */
+    @Builder.Default
+    private final boolean abortOnHeaderMismatch = false;
+
+    /**
+     * 以紧凑形式收集行错误，保存在导入结果的 compactErrors 中，收集行和错误的导入方式不再保存 ExcelRowError
+     */
+    @Builder.Default
+    private final boolean compactErrors = false;
+
+    /**
+     * 以紧凑形式收集行错误时保存详细错误的最大行数，其余的行只计入按列和约束的统计，0 表示不限制
+     */
+    @Builder.Default
+    private final int maxErrorDetails = 0;
+
+    public static ImportOptions defaults() {
+        return ImportOptions.builder().build();
+    }
+
+    /**
+     * 兼容按标题映射和开始行导入的参数
+     *
+     * @param titleMapper
+     * @param beginRowNum 为空时使用默认值1
+     * @return
+     */
+    public static ImportOptions of(Map<String, String> titleMapper, Integer beginRowNum) {
+        return ImportOptions.builder()
+                .titleMapper(titleMapper)
+                .beginRowNum(beginRowNum == null ? 1 : beginRowNum)
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.kjubo.excel;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一次导入的结果，创建后不可修改
+ * 逐行回调的导入方式不收集行和错误，rows 和 errors 为空列表
+ */
+@Getter
+public final class ImportResult<T> {
+
+    /**
+     * 导入的对象
+     */
+    private final List<T> rows;
+
+    /**
+     * 导入行数
+     */
+    private final int count;
+
+    /**
+     * 成功行数
+     */
+    private final int success;
+
+    /**
+     * 行错误的具体信息
+     */
+    private final List<ExcelRowError> errors;
+
+    /**
+     * 紧凑形式的行错误，导入参数没有启用 compactErrors 时为 null
+     */
+    private final ImportErrors compactErrors;
+
+    /**
+     * 提前结束的原因，完整导入时为 null
+     */
+    private final ImportAbortReason abortReason;
+
+    /**
+     * 提前结束的说明，完整导入时为 null
+     */
+    private final String abortMessage;
+
+    /**
+     * 开始导入的时间
+     */
+    private final long startTime;
+
+    /**
+     * 导入耗时，毫秒
+     */
+    private final long elapsedMillis;
+
+    private ImportResult(List<T> rows, int count, int success, List<ExcelRowError> errors, ImportErrors compactErrors,
+                         ImportAbortReason abortReason, String abortMessage, long startTime, long elapsedMillis) {
+        this.rows = rows == null ? Collections.emptyList() : Collections.unmodifiableList(rows);
+        this.count = count;
+        this.success = success;
+        this.errors = errors == null ? Collections.emptyList() : Collections.unmodifiableList(errors);
+        this.compactErrors = compactErrors;
+        this.abortReason = abortReason;
+        this.abortMessage = abortMessage;
+        this.startTime = startTime;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public static <T> ImportResult<T> empty() {
+        return new ImportResult<>(null, 0, 0, null, null, null, null, System.currentTimeMillis(), 0);
+    }
+
+    public boolean hasError() {
+        return this.success < this.count || this.abortReason != null;
+    }
+
+    /**
+     * 是否因为错误过多或标题行不符提前结束，提前结束时只包含已处理的行
+     *
+     * @return
+     */
+    public boolean isAborted() {
+        return this.abortReason != null;
+    }
+
+    /**
+     * 导入过程中统计行数，只在一次导入内使用
+     */
+    static final class Builder<T> {
+
+        private final long startTime = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+        private int count = 0;
+        private int success = 0;
+        private ImportAbortReason abortReason;
+        private String abortMessage;
+
+        /**
+         * 导入参数没有启用 compactErrors 时为 null
+         */
+        private final ImportErrors compactErrors;
+
+        Builder() {
+            this(null);
+        }
+
+        Builder(ImportErrors compactErrors) {
+            this.compactErrors = compactErrors;
+        }
+
+        void row(boolean valid) {
+            this.count++;
+            if (valid) {
+                this.success++;
+            }
+        }
+
+        int getCount() {
+            return this.count;
+        }
+
+        int getErrorCount() {
+            return this.count - this.success;
+        }
+
+        ImportErrors getCompactErrors() {
+            return this.compactErrors;
+        }
+
+        void abort(ImportAbortReason reason, String message) {
+            this.abortReason = reason;
+            this.abortMessage = message;
+        }
+
+        ImportResult<T> build(List<T> rows, List<ExcelRowError> errors) {
+            long elapsedMillis = (System.nanoTime() - this.startNanos) / 1_000_000;
+            return new ImportResult<>(rows, this.count, this.success, errors, this.compactErrors,
+                    this.abortReason, this.abortMessage, this.startTime, elapsedMillis);
+        }
+    }
+}
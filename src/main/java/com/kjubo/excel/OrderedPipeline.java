@@ -0,0 +1,80 @@
+package com.kjubo.excel;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 在 executor 中并行执行任务，按提交顺序在提交线程中交付结果
+ * 未交付的任务超过 maxPending 时，提交线程等待最早的任务完成，解析不会无限领先于处理
+ */
+final class OrderedPipeline<R> {
+
+    private final Executor executor;
+    private final int maxPending;
+    private final Consumer<R> output;
+    private final Deque<CompletableFuture<R>> pending = new ArrayDeque<>();
+
+    OrderedPipeline(Executor executor, int maxPending, Consumer<R> output) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor can not be null");
+        }
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("maxPending must be positive");
+        }
+        this.executor = executor;
+        this.maxPending = maxPending;
+        this.output = output;
+    }
+
+    void submit(Supplier<R> task) {
+        while (this.pending.size() >= this.maxPending) {
+            this.deliver(this.pending.poll());
+        }
+        // 已完成的任务尽早交付，减少结果在内存中停留的时间
+        while (!this.pending.isEmpty() && this.pending.peek().isDone()) {
+            this.deliver(this.pending.poll());
+        }
+        this.pending.add(CompletableFuture.supplyAsync(task, this.executor));
+    }
+
+    /**
+     * 等待并交付剩余的结果
+     */
+    void finish() {
+        while (!this.pending.isEmpty()) {
+            this.deliver(this.pending.poll());
+        }
+    }
+
+    /**
+     * 放弃未交付的结果，已开始执行的任务不会被中断
+     */
+    void cancel() {
+        for (CompletableFuture<R> future : this.pending) {
+            future.cancel(false);
+        }
+        this.pending.clear();
+    }
+
+    private void deliver(CompletableFuture<R> future) {
+        R result;
+        try {
+            result = future.join();
+        } catch (CompletionException e) {
+            this.cancel();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+        this.output.accept(result);
+    }
+}
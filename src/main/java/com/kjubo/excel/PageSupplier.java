@@ -0,0 +1,63 @@
+package com.kjubo.excel;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 分页查询导出数据
+ */
+@FunctionalInterface
+public interface PageSupplier<T> {
+
+    /**
+     * 查询一页数据
+     *
+     * @param offset 第一条数据的位置，从0开始
+     * @param limit  最多返回的数量
+     * @return 返回数量小于 limit 时视为最后一页
+     */
+    List<T> fetch(int offset, int limit);
+
+    /**
+     * 按页读取的迭代器，当前页读完后才查询下一页
+     *
+     * @param pageSize 每页的数量
+     * @return
+     */
+    default Iterator<T> iterator(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        return new Iterator<T>() {
+            private List<T> page = Collections.emptyList();
+            private int index = 0;
+            private int offset = 0;
+            private boolean last = false;
+
+            @Override
+            public boolean hasNext() {
+                while (this.index >= this.page.size()) {
+                    if (this.last) {
+                        return false;
+                    }
+                    List<T> next = PageSupplier.this.fetch(this.offset, pageSize);
+                    this.page = next == null ? Collections.emptyList() : next;
+                    this.index = 0;
+                    this.offset += this.page.size();
+                    this.last = this.page.size() < pageSize;
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return this.page.get(this.index++);
+            }
+        };
+    }
+}
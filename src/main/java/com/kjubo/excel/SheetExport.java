@@ -0,0 +1,45 @@
+package com.kjubo.excel;
+
+import lombok.Getter;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 多 sheet 导出中的一组数据：模板、数据源和导出参数
+ * 每组数据在各自的线程中写入，数据源只会被一个线程读取
+ */
+@Getter
+public final class SheetExport<T extends BaseTemplate> {
+
+    private final ExcelTemplate<T> template;
+    private final Iterator<T> rows;
+    private final ExportOptions options;
+
+    private SheetExport(ExcelTemplate<T> template, Iterator<T> rows, ExportOptions options) {
+        if (template == null || rows == null) {
+            throw new IllegalArgumentException("template and rows can not be null");
+        }
+        this.template = template;
+        this.rows = rows;
+        this.options = options == null ? ExportOptions.defaults() : options;
+    }
+
+    public static <T extends BaseTemplate> SheetExport<T> of(ExcelTemplate<T> template, Iterator<T> rows,
+                                                             ExportOptions options) {
+        return new SheetExport<>(template, rows, options);
+    }
+
+    public static <T extends BaseTemplate> SheetExport<T> of(ExcelTemplate<T> template, List<T> rows,
+                                                             ExportOptions options) {
+        return new SheetExport<>(template, rows.iterator(), options);
+    }
+
+    /**
+     * 分页查询的数据源，在写入线程中按页查询
+     */
+    public static <T extends BaseTemplate> SheetExport<T> of(ExcelTemplate<T> template, PageSupplier<T> pages,
+                                                             int pageSize, ExportOptions options) {
+        return new SheetExport<>(template, pages.iterator(pageSize), options);
+    }
+}
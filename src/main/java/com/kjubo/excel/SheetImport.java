@@ -0,0 +1,55 @@
+package com.kjubo.excel;
+
+import lombok.Getter;
+
+import java.util.function.Consumer;
+
+/**
+ * 多 sheet 导入中一个 sheet 的导入方式：模板、导入参数和回调
+ * 导入参数中的 sheetName 和 sheetIndex 不起作用
+ */
+@Getter
+public final class SheetImport<T extends BaseTemplate> {
+
+    private final ExcelTemplate<T> template;
+    private final ImportOptions options;
+
+    /**
+     * 每一行的对象，为空时行和错误信息收集在该 sheet 的导入结果中
+     */
+    private final Consumer<T> onRow;
+
+    /**
+     * 校验不通过行的错误信息，可以为空
+     */
+    private final Consumer<ExcelRowError> onError;
+
+    private SheetImport(ExcelTemplate<T> template, ImportOptions options,
+                        Consumer<T> onRow, Consumer<ExcelRowError> onError) {
+        if (template == null) {
+            throw new IllegalArgumentException("template can not be null");
+        }
+        this.template = template;
+        this.options = options == null ? ImportOptions.defaults() : options;
+        this.onRow = onRow;
+        this.onError = onError;
+    }
+
+    /**
+     * 行和错误信息收集在导入结果中
+     */
+    public static <T extends BaseTemplate> SheetImport<T> of(ExcelTemplate<T> template, ImportOptions options) {
+        return new SheetImport<>(template, options, null, null);
+    }
+
+    /**
+     * 逐行回调，导入结果中只有行数统计
+     */
+    public static <T extends BaseTemplate> SheetImport<T> of(ExcelTemplate<T> template, ImportOptions options,
+                                                             Consumer<T> onRow, Consumer<ExcelRowError> onError) {
+        if (onRow == null) {
+            throw new IllegalArgumentException("onRow can not be null");
+        }
+        return new SheetImport<>(template, options, onRow, onError);
+    }
+}
@@ -0,0 +1,23 @@
+package com.kjubo.excel.bind;
+
+/**
+ * 模板属性的读写器，每个属性创建一次，导入导出时复用
+ */
+public interface FieldAccessor {
+
+    /**
+     * 读取属性值
+     *
+     * @param target
+     * @return
+     */
+    Object get(Object target);
+
+    /**
+     * 设置属性值，基本类型的属性不接受 null
+     *
+     * @param target
+     * @param value
+     */
+    void set(Object target, Object value);
+}
@@ -0,0 +1,244 @@
+package com.kjubo.excel.bind;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 创建属性读写器和实例构造器
+ * 优先通过 LambdaMetafactory 把 public 的 getter/setter/无参构造器编译为函数对象，
+ * 没有可用的方法时使用 MethodHandle，最后才使用反射
+ */
+public final class FieldAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private FieldAccessors() {
+    }
+
+    /**
+     * 创建属性读写器
+     *
+     * @param field 已设置为可访问的属性
+     * @return
+     */
+    public static FieldAccessor of(Field field) {
+        Function<Object, Object> getter = null;
+        BiConsumer<Object, Object> setter = null;
+        if (isLinkable(field.getDeclaringClass()) && isLinkable(field.getType())) {
+            Method getterMethod = findGetter(field);
+            if (getterMethod != null) {
+                getter = lambdaGetter(getterMethod);
+            }
+            Method setterMethod = findSetter(field);
+            if (setterMethod != null) {
+                setter = lambdaSetter(setterMethod);
+            }
+        }
+        if (getter == null) {
+            getter = handleGetter(field);
+        }
+        if (setter == null) {
+            setter = handleSetter(field);
+        }
+        return new BoundFieldAccessor(getter, setter);
+    }
+
+    /**
+     * 创建无参构造器
+     *
+     * @param clazz
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Supplier<T> constructor(Class<T> clazz) {
+        if (isLinkable(clazz) && !Modifier.isAbstract(clazz.getModifiers())) {
+            try {
+                MethodHandle handle = LOOKUP.findConstructor(clazz, MethodType.methodType(void.class));
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        handle,
+                        MethodType.methodType(clazz));
+                return (Supplier<T>) site.getTarget().invokeExact();
+            } catch (Throwable ignored) {
+                // 使用反射
+            }
+        }
+        try {
+            Constructor<T> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("can not create instance of " + clazz.getName(), e);
+                }
+            };
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(clazz.getName() + " must have a no-argument constructor", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> lambdaGetter(Method method) {
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(method.getReturnType(), method.getDeclaringClass()).wrap());
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> lambdaSetter(Method method) {
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, method.getDeclaringClass(),
+                            MethodType.methodType(method.getParameterTypes()[0]).wrap().returnType()));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static Function<Object, Object> handleGetter(Field field) {
+        try {
+            MethodHandle handle = LOOKUP.unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            return target -> {
+                try {
+                    return handle.invokeExact(target);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (IllegalAccessException e) {
+            return target -> {
+                try {
+                    return field.get(target);
+                } catch (IllegalAccessException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        }
+    }
+
+    private static BiConsumer<Object, Object> handleSetter(Field field) {
+        try {
+            MethodHandle handle = LOOKUP.unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (target, value) -> {
+                try {
+                    handle.invokeExact(target, value);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (IllegalAccessException e) {
+            return (target, value) -> {
+                try {
+                    field.set(target, value);
+                } catch (IllegalAccessException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        }
+    }
+
+    private static Method findGetter(Field field) {
+        String property = StringUtils.capitalize(field.getName());
+        Method method = findMethod(field.getDeclaringClass(), "get" + property);
+        if (method == null && field.getType() == boolean.class) {
+            method = findMethod(field.getDeclaringClass(), "is" + property);
+        }
+        return method != null && method.getReturnType() == field.getType() ? method : null;
+    }
+
+    private static Method findSetter(Field field) {
+        Method method = findMethod(field.getDeclaringClass(), "set" + StringUtils.capitalize(field.getName()), field.getType());
+        return method != null && method.getReturnType() == void.class ? method : null;
+    }
+
+    private static Method findMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = clazz.getMethod(name, parameterTypes);
+            if (Modifier.isStatic(method.getModifiers())
+                    || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                return null;
+            }
+            return method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 生成的函数类由本类的类加载器加载，只能链接对本类可见的 public 类
+     *
+     * @param clazz
+     * @return
+     */
+    private static boolean isLinkable(Class<?> clazz) {
+        if (clazz.isPrimitive()) {
+            return true;
+        }
+        if (clazz.isArray()) {
+            return isLinkable(clazz.getComponentType());
+        }
+        if (!Modifier.isPublic(clazz.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(clazz.getName(), false, FieldAccessors.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static final class BoundFieldAccessor implements FieldAccessor {
+
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+
+        BoundFieldAccessor(Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public Object get(Object target) {
+            return this.getter.apply(target);
+        }
+
+        @Override
+        public void set(Object target, Object value) {
+            this.setter.accept(target, value);
+        }
+    }
+}
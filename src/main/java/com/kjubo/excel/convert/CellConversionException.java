@@ -0,0 +1,44 @@
+package com.kjubo.excel.convert;
+
+/**
+ * 单元格值无法转换为属性类型
+ * 错误信息由固定的模板和单元格内容组成，同一类错误可以按模板合并
+ */
+public class CellConversionException extends IllegalArgumentException {
+
+    /**
+     * 模板中单元格内容的占位符
+     */
+    public static final String VALUE = "{0}";
+
+    private final String messageTemplate;
+
+    public CellConversionException(String messageTemplate, Object value) {
+        this(messageTemplate, value, null);
+    }
+
+    public CellConversionException(String messageTemplate, Object value, Throwable cause) {
+        super(render(messageTemplate, value == null ? "" : String.valueOf(value)), cause);
+        this.messageTemplate = messageTemplate;
+    }
+
+    /**
+     * 错误信息模板，例如 "日期格式错误: {0}"
+     *
+     * @return
+     */
+    public String getMessageTemplate() {
+        return this.messageTemplate;
+    }
+
+    /**
+     * 用单元格内容替换模板中的占位符
+     *
+     * @param messageTemplate
+     * @param value           单元格内容，为 null 时替换为空字符串
+     * @return
+     */
+    public static String render(String messageTemplate, String value) {
+        return messageTemplate.replace(VALUE, value == null ? "" : value);
+    }
+}
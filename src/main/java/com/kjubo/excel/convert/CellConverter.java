@@ -0,0 +1,61 @@
+package com.kjubo.excel.convert;
+
+import java.util.Date;
+
+/**
+ * 把单元格的值转换为模板属性的值
+ * 每一列在编译模板时选定一个转换器，导入时按单元格类型调用对应的方法
+ * 返回 null 时不设置属性值
+ *
+ * @param <V> 属性类型
+ */
+@FunctionalInterface
+public interface CellConverter<V> {
+
+    /**
+     * 文本单元格，已去除首尾空白
+     *
+     * @param value
+     * @return
+     */
+    V fromString(String value);
+
+    /**
+     * 数字单元格（非日期格式）
+     *
+     * @param value
+     * @return
+     */
+    default V fromNumber(double value) {
+        return this.fromString(CellConverters.numberText(value));
+    }
+
+    /**
+     * 日期格式的数字单元格
+     *
+     * @param value
+     * @return
+     */
+    default V fromDate(Date value) {
+        throw new IllegalArgumentException("不支持日期类型的值");
+    }
+
+    /**
+     * 布尔单元格
+     *
+     * @param value
+     * @return
+     */
+    default V fromBoolean(boolean value) {
+        return this.fromString(String.valueOf(value));
+    }
+
+    /**
+     * 空白单元格
+     *
+     * @return
+     */
+    default V fromBlank() {
+        return null;
+    }
+}
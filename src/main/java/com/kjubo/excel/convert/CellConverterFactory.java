@@ -0,0 +1,12 @@
+package com.kjubo.excel.convert;
+
+import com.kjubo.excel.ExcelColumnInfo;
+
+/**
+ * 根据列属性创建转换器，每一列只调用一次
+ */
+@FunctionalInterface
+public interface CellConverterFactory {
+
+    CellConverter<?> create(ExcelColumnInfo column);
+}
@@ -0,0 +1,420 @@
+package com.kjubo.excel.convert;
+
+import com.kjubo.excel.ExcelColumnInfo;
+import com.kjubo.excel.ExcelTemplateSchema;
+import com.kjubo.excel.ICodeable;
+import com.kjubo.excel.reader.ExcelRow;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import javax.validation.constraints.Digits;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+
+/**
+ * 转换器注册表
+ * 选择顺序：ICodeable 列 &gt; 自定义转换器 &gt; 内置转换器 &gt; 枚举 &gt; 原值
+ */
+public final class CellConverters {
+
+    private static final Map<Class<?>, CellConverterFactory> CUSTOM = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, CellConverterFactory> BUILT_IN = new HashMap<>();
+
+    private static final CellConverter<BigDecimal> DECIMAL = new NumberConverter<>(BigDecimal::valueOf, Function.identity());
+
+    /**
+     * 小于该值的整数可以精确地用 long 表示
+     */
+    private static final double MAX_EXACT_LONG = 1e15;
+
+    /**
+     * excel 日期序列号的范围：1900-01-01 为 1，10000-01-01 为 2958466
+     */
+    private static final double MIN_EXCEL_DATE = 1;
+    private static final double MAX_EXCEL_DATE = 2958466;
+
+    static {
+        builtIn(new NumberConverter<>(d -> (int) d, BigDecimal::intValue), Integer.class, int.class);
+        builtIn(new NumberConverter<>(d -> (long) d, BigDecimal::longValue), Long.class, long.class);
+        builtIn(new NumberConverter<>(d -> (short) d, BigDecimal::shortValue), Short.class, short.class);
+        builtIn(new NumberConverter<>(d -> (byte) d, BigDecimal::byteValue), Byte.class, byte.class);
+        builtIn(new NumberConverter<>(d -> (float) d, BigDecimal::floatValue), Float.class, float.class);
+        builtIn(new NumberConverter<>(d -> d, BigDecimal::doubleValue), Double.class, double.class);
+        builtIn(DECIMAL, Number.class);
+        BUILT_IN.put(BigDecimal.class, CellConverters::decimalConverter);
+        builtIn(new NumberConverter<>(d -> BigDecimal.valueOf(d).toBigInteger(), BigDecimal::toBigInteger), BigInteger.class);
+        builtIn(new BooleanConverter(), Boolean.class, boolean.class);
+        BUILT_IN.put(String.class, StringConverter::new);
+        BUILT_IN.put(Date.class, column -> new DateConverter<>(column, DateFormats::toDate, Function.identity()));
+        BUILT_IN.put(LocalDateTime.class, column -> new DateConverter<>(column, Function.identity(), DateFormats::toLocalDateTime));
+        BUILT_IN.put(LocalDate.class, column -> new DateConverter<>(column, LocalDateTime::toLocalDate,
+                date -> DateFormats.toLocalDateTime(date).toLocalDate()));
+    }
+
+    private CellConverters() {
+    }
+
+    /**
+     * 注册所有列共用的转换器，基本类型与包装类型需要分别注册
+     *
+     * @param type      属性类型
+     * @param converter
+     */
+    public static void register(Class<?> type, CellConverter<?> converter) {
+        registerFactory(type, column -> converter);
+    }
+
+    /**
+     * 注册按列创建的转换器
+     *
+     * @param type    属性类型
+     * @param factory
+     */
+    public static void registerFactory(Class<?> type, CellConverterFactory factory) {
+        if (type == null || factory == null) {
+            throw new IllegalArgumentException("type and factory can not be null");
+        }
+        CUSTOM.put(type, factory);
+        // 已编译的模板需要重新选择转换器，ICodeable 的缓存不受影响
+        ExcelTemplateSchema.clearSchemas();
+    }
+
+    /**
+     * 为列选择转换器
+     *
+     * @param column
+     * @return
+     */
+    public static CellConverter<?> create(ExcelColumnInfo column) {
+        ICodeable codeable = column.getExcelColumnCodeable();
+        if (codeable != null) {
+            return new CodeableConverter(codeable);
+        }
+        Class<?> type = column.getField().getType();
+        CellConverterFactory factory = CUSTOM.get(type);
+        if (factory == null) {
+            factory = BUILT_IN.get(type);
+        }
+        if (factory != null) {
+            return factory.create(column);
+        }
+        if (type.isEnum()) {
+            return new EnumConverter(type);
+        }
+        return new RawConverter(type);
+    }
+
+    /**
+     * 按单元格类型调用转换器，数字和布尔值以基本类型传入
+     *
+     * @param converter
+     * @param row
+     * @param col
+     * @return
+     */
+    public static Object convert(CellConverter<?> converter, ExcelRow row, int col) {
+        switch (row.getCellType(col)) {
+            case NUMBER:
+                return converter.fromNumber(row.getNumber(col));
+            case DATE:
+                return converter.fromDate(row.getDate(col));
+            case STRING:
+                return converter.fromString(row.getString(col));
+            case BOOLEAN:
+                return converter.fromBoolean(row.getBoolean(col));
+            default:
+                return converter.fromBlank();
+        }
+    }
+
+    /**
+     * 数字转为文本，整数不带小数点，小数不使用科学计数法
+     *
+     * @param value
+     * @return
+     */
+    public static String numberText(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < MAX_EXACT_LONG) {
+            return Long.toString((long) value);
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * BigDecimal 列有 @Digits 时按小数位数四舍五入，去掉数字单元格的浮点误差（如 0.30000000000000004）
+     */
+    private static CellConverter<BigDecimal> decimalConverter(ExcelColumnInfo column) {
+        Digits digits = column.getDigits();
+        if (digits == null) {
+            return DECIMAL;
+        }
+        int scale = digits.fraction();
+        return new NumberConverter<>(d -> BigDecimal.valueOf(d).setScale(scale, RoundingMode.HALF_UP),
+                decimal -> decimal.setScale(scale, RoundingMode.HALF_UP));
+    }
+
+    private static void builtIn(CellConverter<?> converter, Class<?>... types) {
+        for (Class<?> type : types) {
+            BUILT_IN.put(type, column -> converter);
+        }
+    }
+
+    private static final class NumberConverter<V> implements CellConverter<V> {
+
+        private final DoubleFunction<V> fromDouble;
+        private final Function<BigDecimal, V> fromDecimal;
+
+        NumberConverter(DoubleFunction<V> fromDouble, Function<BigDecimal, V> fromDecimal) {
+            this.fromDouble = fromDouble;
+            this.fromDecimal = fromDecimal;
+        }
+
+        @Override
+        public V fromNumber(double value) {
+            return this.fromDouble.apply(value);
+        }
+
+        @Override
+        public V fromString(String value) {
+            if (value.isEmpty()) {
+                return null;
+            }
+            BigDecimal decimal;
+            try {
+                decimal = new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new CellConversionException("数字格式错误: {0}", value, e);
+            }
+            return this.fromDecimal.apply(decimal);
+        }
+
+        @Override
+        public V fromBoolean(boolean value) {
+            return this.fromDouble.apply(value ? 1 : 0);
+        }
+    }
+
+    private static final class BooleanConverter implements CellConverter<Boolean> {
+
+        @Override
+        public Boolean fromString(String value) {
+            if (value.isEmpty()) {
+                return null;
+            }
+            switch (value.toLowerCase()) {
+                case "true":
+                case "1":
+                case "y":
+                case "yes":
+                case "是":
+                    return Boolean.TRUE;
+                case "false":
+                case "0":
+                case "n":
+                case "no":
+                case "否":
+                    return Boolean.FALSE;
+                default:
+                    throw new CellConversionException("无法转换为布尔值: {0}", value);
+            }
+        }
+
+        @Override
+        public Boolean fromNumber(double value) {
+            return value != 0;
+        }
+
+        @Override
+        public Boolean fromBoolean(boolean value) {
+            return value;
+        }
+    }
+
+    private static final class StringConverter implements CellConverter<String> {
+
+        private final DateTimeFormatter dateFormatter;
+
+        StringConverter(ExcelColumnInfo column) {
+            this.dateFormatter = column.getDateFormatter();
+        }
+
+        @Override
+        public String fromString(String value) {
+            return value;
+        }
+
+        @Override
+        public String fromNumber(double value) {
+            return numberText(value);
+        }
+
+        @Override
+        public String fromDate(Date value) {
+            return DateFormats.format(value, this.dateFormatter);
+        }
+    }
+
+    /**
+     * Date、LocalDate、LocalDateTime 的转换器，文本按列的日期格式严格解析
+     */
+    private static final class DateConverter<V> implements CellConverter<V> {
+
+        private final DateTimeFormatter[] dateParsers;
+        private final Function<LocalDateTime, V> fromParsed;
+        private final Function<Date, V> fromJavaDate;
+
+        DateConverter(ExcelColumnInfo column, Function<LocalDateTime, V> fromParsed, Function<Date, V> fromJavaDate) {
+            this.dateParsers = column.getDateParsers();
+            this.fromParsed = fromParsed;
+            this.fromJavaDate = fromJavaDate;
+        }
+
+        @Override
+        public V fromString(String value) {
+            if (value.isEmpty()) {
+                return null;
+            }
+            return this.fromParsed.apply(DateFormats.parse(value, this.dateParsers));
+        }
+
+        /**
+         * 没有日期格式的数字单元格（如 yyyyMMdd 格式的 20200101）先按列的日期格式解析，
+         * 解析失败时才按 excel 的日期序列号转换，序列号只接受 1900-01-01 到 9999-12-31 之间的值
+         */
+        @Override
+        public V fromNumber(double value) {
+            String text = numberText(value);
+            try {
+                return this.fromParsed.apply(DateFormats.parse(text, this.dateParsers));
+            } catch (IllegalArgumentException e) {
+                if (value < MIN_EXCEL_DATE || value >= MAX_EXCEL_DATE) {
+                    throw new CellConversionException("日期格式错误: {0}", text, e);
+                }
+            }
+            return this.fromJavaDate.apply(DateUtil.getJavaDate(value));
+        }
+
+        @Override
+        public V fromDate(Date value) {
+            return this.fromJavaDate.apply(value);
+        }
+
+        @Override
+        public V fromBoolean(boolean value) {
+            throw new CellConversionException("日期格式错误: {0}", value);
+        }
+    }
+
+    private static final class EnumConverter implements CellConverter<Object> {
+
+        private final Map<String, Object> constants = new HashMap<>();
+
+        /**
+         * 按大写名称查找，名称只有大小写不同的常量对应第一个
+         */
+        private final Map<String, Object> ignoreCase = new HashMap<>();
+
+        EnumConverter(Class<?> type) {
+            for (Object constant : type.getEnumConstants()) {
+                String name = ((Enum<?>) constant).name();
+                this.constants.put(name, constant);
+                this.ignoreCase.putIfAbsent(name.toUpperCase(Locale.ROOT), constant);
+            }
+        }
+
+        @Override
+        public Object fromString(String value) {
+            if (value.isEmpty()) {
+                return null;
+            }
+            String name = value.trim();
+            Object constant = this.constants.get(name);
+            if (constant == null) {
+                constant = this.ignoreCase.get(name.toUpperCase(Locale.ROOT));
+            }
+            if (constant == null) {
+                throw new CellConversionException("枚举值错误: {0}", value);
+            }
+            return constant;
+        }
+    }
+
+    private static final class CodeableConverter implements CellConverter<String> {
+
+        private final ICodeable codeable;
+
+        CodeableConverter(ICodeable codeable) {
+            this.codeable = codeable;
+        }
+
+        @Override
+        public String fromString(String value) {
+            if (value.isEmpty()) {
+                return "";
+            }
+            return Optional.ofNullable(this.codeable.getCode(value)).orElse("");
+        }
+
+        @Override
+        public String fromDate(Date value) {
+            return this.fromString(value.toString());
+        }
+
+        @Override
+        public String fromBlank() {
+            return "";
+        }
+    }
+
+    /**
+     * 没有可用转换器的类型，只接受类型相同的单元格值
+     */
+    private static final class RawConverter implements CellConverter<Object> {
+
+        private final Class<?> type;
+
+        RawConverter(Class<?> type) {
+            this.type = ClassUtils.primitiveToWrapper(type);
+        }
+
+        @Override
+        public Object fromString(String value) {
+            return this.check(value);
+        }
+
+        @Override
+        public Object fromNumber(double value) {
+            return this.check(value);
+        }
+
+        @Override
+        public Object fromDate(Date value) {
+            return this.check(value);
+        }
+
+        @Override
+        public Object fromBoolean(boolean value) {
+            return this.check(value);
+        }
+
+        private Object check(Object value) {
+            if (this.type.isInstance(value)) {
+                return value;
+            }
+            throw new IllegalArgumentException("can not convert " + value.getClass().getSimpleName()
+                    + " to " + this.type.getName());
+        }
+    }
+}
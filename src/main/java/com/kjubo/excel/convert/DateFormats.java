@@ -0,0 +1,272 @@
+package com.kjubo.excel.convert;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 线程安全的日期格式化与解析，按格式缓存 DateTimeFormatter
+ * 格式与 SimpleDateFormat 相同，格式化和解析按同样的含义转换；解析是严格的（不接受 2月30日），
+ * 与 SimpleDateFormat 一样，两位的月、日、时、分、秒在有分隔符时也接受一位数字
+ */
+public final class DateFormats {
+
+    /**
+     * 缓存的格式数量上限，超过后不再缓存新的格式
+     */
+    private static final int MAX_CACHED_PATTERNS = 256;
+
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+    private static final Map<String, DateTimeFormatter> PARSERS = new ConcurrentHashMap<>();
+
+    /**
+     * SimpleDateFormat 支持的格式字母
+     */
+    private static final String SIMPLE_DATE_FORMAT_LETTERS = "GyYMLwWDdFEuaHkKhmsSzZX";
+
+    private DateFormats() {
+    }
+
+    /**
+     * 用于格式化的 DateTimeFormatter
+     *
+     * @param pattern SimpleDateFormat 格式
+     * @return
+     */
+    public static DateTimeFormatter formatter(String pattern) {
+        DateTimeFormatter formatter = FORMATTERS.get(pattern);
+        if (formatter == null) {
+            formatter = toBuilder(pattern, false).toFormatter().withZone(ZoneId.systemDefault());
+            if (FORMATTERS.size() < MAX_CACHED_PATTERNS) {
+                FORMATTERS.putIfAbsent(pattern, formatter);
+            }
+        }
+        return formatter;
+    }
+
+    /**
+     * 用于严格解析的 DateTimeFormatter
+     *
+     * @param pattern SimpleDateFormat 格式
+     * @return
+     */
+    public static DateTimeFormatter parser(String pattern) {
+        DateTimeFormatter parser = PARSERS.get(pattern);
+        if (parser == null) {
+            DateTimeFormatterBuilder builder = toBuilder(pattern, true);
+            // 与 SimpleDateFormat 一样，没有月、日的格式（如 yyyy-MM）解析为该月（年）的第一天
+            String letters = patternLetters(pattern);
+            if (letters.indexOf('y') >= 0 && letters.indexOf('D') < 0 && letters.indexOf('w') < 0) {
+                if (letters.indexOf('M') < 0 && letters.indexOf('L') < 0) {
+                    builder.parseDefaulting(ChronoField.MONTH_OF_YEAR, 1);
+                }
+                if (letters.indexOf('d') < 0) {
+                    builder.parseDefaulting(ChronoField.DAY_OF_MONTH, 1);
+                }
+            }
+            parser = builder.toFormatter().withResolverStyle(ResolverStyle.STRICT);
+            if (PARSERS.size() < MAX_CACHED_PATTERNS) {
+                PARSERS.putIfAbsent(pattern, parser);
+            }
+        }
+        return parser;
+    }
+
+    public static DateTimeFormatter[] parsers(String[] patterns) {
+        DateTimeFormatter[] parsers = new DateTimeFormatter[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            parsers[i] = parser(patterns[i]);
+        }
+        return parsers;
+    }
+
+    /**
+     * 格式化 Date、LocalDate、LocalDateTime
+     *
+     * @param value
+     * @param formatter
+     * @return
+     * @throws java.time.DateTimeException 格式中包含值没有的字段，例如用带时间的格式格式化 LocalDate
+     */
+    public static String format(Object value, DateTimeFormatter formatter) {
+        if (value instanceof Date) {
+            return formatter.format(((Date) value).toInstant());
+        }
+        return formatter.format((TemporalAccessor) value);
+    }
+
+    /**
+     * 依次使用每个格式解析，全部失败时抛出异常
+     *
+     * @param text
+     * @param parsers
+     * @return 只有日期的格式时间为 00:00，没有月、日的格式为第一个月、第一天，只有时间的格式日期为 1970-01-01
+     * @throws IllegalArgumentException 无法解析
+     */
+    public static LocalDateTime parse(String text, DateTimeFormatter[] parsers) {
+        for (DateTimeFormatter parser : parsers) {
+            try {
+                TemporalAccessor parsed = parser.parse(text);
+                LocalDate date = parsed.query(TemporalQueries.localDate());
+                LocalTime time = parsed.query(TemporalQueries.localTime());
+                if (date == null && time == null) {
+                    // 只解析出部分字段，不能确定日期
+                    continue;
+                }
+                return LocalDateTime.of(date == null ? LocalDate.of(1970, 1, 1) : date,
+                        time == null ? LocalTime.MIDNIGHT : time);
+            } catch (DateTimeParseException ignored) {
+                // 尝试下一个格式
+            }
+        }
+        throw new CellConversionException("日期格式错误: {0}", text);
+    }
+
+    public static Date toDate(LocalDateTime value) {
+        return Date.from(value.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    public static LocalDateTime toLocalDateTime(Date value) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(value.getTime()), ZoneId.systemDefault());
+    }
+
+    /**
+     * Date、LocalDate、LocalDateTime 转为 Date，用于写入 excel 日期单元格
+     *
+     * @param value
+     * @return
+     */
+    public static Date toDate(Object value) {
+        if (value instanceof Date) {
+            return (Date) value;
+        }
+        if (value instanceof LocalDateTime) {
+            return toDate((LocalDateTime) value);
+        }
+        if (value instanceof LocalDate) {
+            return toDate(((LocalDate) value).atStartOfDay());
+        }
+        throw new IllegalArgumentException("can not convert " + value.getClass().getName() + " to Date");
+    }
+
+    /**
+     * 按 SimpleDateFormat 的含义把格式转为 DateTimeFormatterBuilder，格式化和解析使用同一个转换：
+     * y 使用 YEAR（STRICT 模式下 y 需要纪元），yy 与 SimpleDateFormat 一样以当前年份前80年为基准，
+     * S 为毫秒数而不是秒的小数部分，u 为星期几（1 为星期一），F 为当月第几个星期几；
+     * 解析时前后都不是字母的两位 M、d、H、h、m、s、k、K 接受一位或两位数字
+     *
+     * @param pattern SimpleDateFormat 格式
+     * @param parsing 是否用于解析
+     * @return
+     * @throws IllegalArgumentException 格式中有 SimpleDateFormat 不支持的字母
+     */
+    private static DateTimeFormatterBuilder toBuilder(String pattern, boolean parsing) {
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+        // 与 DateTimeFormatter 含义相同的部分原样保留，遇到含义不同的字母时一起加入
+        StringBuilder same = new StringBuilder(pattern.length());
+        boolean quoted = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                same.append(c);
+                i++;
+                continue;
+            }
+            if (quoted || !isPatternLetter(c)) {
+                same.append(c);
+                i++;
+                continue;
+            }
+            if (SIMPLE_DATE_FORMAT_LETTERS.indexOf(c) < 0) {
+                throw new IllegalArgumentException("unsupported date pattern letter '" + c + "': " + pattern);
+            }
+            int end = i;
+            while (end < pattern.length() && pattern.charAt(end) == c) {
+                end++;
+            }
+            int count = end - i;
+            boolean separated = (i == 0 || !isPatternLetter(pattern.charAt(i - 1)))
+                    && (end == pattern.length() || !isPatternLetter(pattern.charAt(end)));
+            i = end;
+            if (c == 'y' && count != 2) {
+                appendRepeated(same, 'u', count);
+                continue;
+            }
+            if (c != 'y' && c != 'S' && c != 'u' && c != 'F') {
+                if (parsing && count == 2 && separated && "MdHhmskK".indexOf(c) >= 0) {
+                    count = 1;
+                }
+                appendRepeated(same, c, count);
+                continue;
+            }
+            if (same.length() > 0) {
+                builder.appendPattern(same.toString());
+                same.setLength(0);
+            }
+            switch (c) {
+                case 'y':
+                    builder.appendValueReduced(ChronoField.YEAR, 2, 2, LocalDate.now().minusYears(80));
+                    break;
+                case 'S':
+                    if (count < 3) {
+                        builder.appendValue(ChronoField.MILLI_OF_SECOND, count, 3, SignStyle.NOT_NEGATIVE);
+                    } else {
+                        builder.appendValue(ChronoField.MILLI_OF_SECOND, count);
+                    }
+                    break;
+                case 'u':
+                    builder.appendValue(ChronoField.DAY_OF_WEEK, count);
+                    break;
+                default:
+                    builder.appendValue(ChronoField.ALIGNED_WEEK_OF_MONTH, count);
+                    break;
+            }
+        }
+        if (same.length() > 0) {
+            builder.appendPattern(same.toString());
+        }
+        return builder;
+    }
+
+    private static void appendRepeated(StringBuilder result, char c, int count) {
+        for (int k = 0; k < count; k++) {
+            result.append(c);
+        }
+    }
+
+    /**
+     * 格式中不在引号内的字母
+     */
+    private static String patternLetters(String pattern) {
+        StringBuilder letters = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && isPatternLetter(c)) {
+                letters.append(c);
+            }
+        }
+        return letters.toString();
+    }
+
+    private static boolean isPatternLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
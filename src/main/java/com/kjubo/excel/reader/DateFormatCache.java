@@ -0,0 +1,44 @@
+package com.kjubo.excel.reader;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.Arrays;
+
+/**
+ * 按样式序号缓存数字格式是否为日期格式，每个样式只判断一次
+ */
+final class DateFormatCache {
+
+    private static final byte DATE = 1;
+    private static final byte NOT_DATE = 2;
+
+    private byte[] flags = new byte[32];
+
+    /**
+     * @param styleIndex
+     * @return 未缓存时返回 null
+     */
+    Boolean get(int styleIndex) {
+        if (styleIndex >= this.flags.length) {
+            return null;
+        }
+        switch (this.flags[styleIndex]) {
+            case DATE:
+                return Boolean.TRUE;
+            case NOT_DATE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    boolean put(int styleIndex, CellStyle style) {
+        boolean date = style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        if (styleIndex >= this.flags.length) {
+            this.flags = Arrays.copyOf(this.flags, Math.max(styleIndex + 1, this.flags.length * 2));
+        }
+        this.flags[styleIndex] = date ? DATE : NOT_DATE;
+        return date;
+    }
+}
@@ -0,0 +1,24 @@
+package com.kjubo.excel.reader;
+
+/**
+ * 读取器解析出的单元格类型
+ * 公式单元格按缓存的计算结果归类，故障单元格视为空白
+ */
+public enum ExcelCellType {
+
+    BLANK,
+
+    /**
+     * 数字，非日期格式
+     */
+    NUMBER,
+
+    /**
+     * 日期格式的数字
+     */
+    DATE,
+
+    STRING,
+
+    BOOLEAN
+}
@@ -0,0 +1,109 @@
+package com.kjubo.excel.reader;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Excel 读取器
+ * .xlsx 使用基于SAX的流式读取，内存占用与文件行数无关
+ * .xls  使用 POI usermodel 读取
+ */
+public interface ExcelReader extends Closeable {
+
+    /**
+     * 逐行读取第一个sheet页，没有sheet页时不回调
+     *
+     * @param listener
+     * @throws IOException
+     */
+    default void read(ExcelRowListener listener) throws IOException {
+        if (!this.getSheetNames().isEmpty()) {
+            this.read(0, listener);
+        }
+    }
+
+    /**
+     * 逐行读取指定的sheet页，同一个读取器可以依次读取多个sheet页
+     *
+     * @param sheetIndex sheet页序号，从0开始
+     * @param listener
+     * @throws IOException
+     * @throws IllegalArgumentException sheet页不存在
+     */
+    void read(int sheetIndex, ExcelRowListener listener) throws IOException;
+
+    /**
+     * 按工作簿中顺序排列的sheet页名称
+     *
+     * @return
+     * @throws IOException
+     */
+    List<String> getSheetNames() throws IOException;
+
+    /**
+     * 是否为隐藏的sheet页，例如导出时存放下拉框数据源的sheet页
+     *
+     * @param sheetIndex sheet页序号，从0开始
+     * @return
+     * @throws IOException
+     */
+    boolean isSheetHidden(int sheetIndex) throws IOException;
+
+    /**
+     * 按名称查找sheet页
+     *
+     * @param sheetName
+     * @return 不存在时返回 -1
+     * @throws IOException
+     */
+    default int getSheetIndex(String sheetName) throws IOException {
+        return this.getSheetNames().indexOf(sheetName);
+    }
+
+    /**
+     * 根据文件头选择读取器
+     *
+     * @param inputStream excel文件流
+     * @return
+     * @throws IOException
+     */
+    static ExcelReader open(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("inputStream can not be null");
+        }
+        InputStream in = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+        if (isOoxml(in)) {
+            return new XlsxStreamingReader(in);
+        }
+        return new WorkbookReader(in);
+    }
+
+    /**
+     * OOXML 文件是zip包，以 "PK\003\004" 开头
+     *
+     * @param in 支持mark的文件流
+     * @return
+     * @throws IOException
+     */
+    static boolean isOoxml(InputStream in) throws IOException {
+        byte[] header = new byte[4];
+        in.mark(header.length);
+        int read = 0;
+        try {
+            while (read < header.length) {
+                int n = in.read(header, read, header.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+        } finally {
+            in.reset();
+        }
+        return read == header.length
+                && header[0] == 'P' && header[1] == 'K' && header[2] == 3 && header[3] == 4;
+    }
+}
@@ -0,0 +1,174 @@
+package com.kjubo.excel.reader;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * excel中的一行数据
+ * 由读取器在解析每一行时复用同一个实例，监听器不应在回调之外持有它
+ * 数字、日期、布尔值以基本类型保存，读取时不产生包装对象
+ */
+public class ExcelRow {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * excel 对应行号，从0开始
+     */
+    private int rowIndex;
+
+    /**
+     * 行内最后一个有值的单元格序号 + 1
+     */
+    private int lastCellNum;
+
+    private ExcelCellType[] types = newTypes(INITIAL_CAPACITY);
+
+    /**
+     * 数字、日期（excel序列值）、布尔（1/0）
+     */
+    private double[] numbers = new double[INITIAL_CAPACITY];
+
+    private String[] strings = new String[INITIAL_CAPACITY];
+
+    void reset(int rowIndex) {
+        Arrays.fill(this.types, 0, this.lastCellNum, ExcelCellType.BLANK);
+        Arrays.fill(this.strings, 0, this.lastCellNum, null);
+        this.rowIndex = rowIndex;
+        this.lastCellNum = 0;
+    }
+
+    void setNumber(int col, double value, boolean date) {
+        if (this.ensureCapacity(col)) {
+            this.types[col] = date ? ExcelCellType.DATE : ExcelCellType.NUMBER;
+            this.numbers[col] = value;
+        }
+    }
+
+    void setBoolean(int col, boolean value) {
+        if (this.ensureCapacity(col)) {
+            this.types[col] = ExcelCellType.BOOLEAN;
+            this.numbers[col] = value ? 1 : 0;
+        }
+    }
+
+    void setString(int col, String value) {
+        if (value != null && this.ensureCapacity(col)) {
+            this.types[col] = ExcelCellType.STRING;
+            this.strings[col] = value;
+        }
+    }
+
+    public int getRowIndex() {
+        return this.rowIndex;
+    }
+
+    public int getLastCellNum() {
+        return this.lastCellNum;
+    }
+
+    public ExcelCellType getCellType(int col) {
+        if (col < 0 || col >= this.lastCellNum) {
+            return ExcelCellType.BLANK;
+        }
+        return this.types[col];
+    }
+
+    /**
+     * 数字单元格的值，日期单元格为excel序列值
+     *
+     * @param col
+     * @return
+     */
+    public double getNumber(int col) {
+        return this.numbers[col];
+    }
+
+    public boolean getBoolean(int col) {
+        return this.numbers[col] != 0;
+    }
+
+    public String getString(int col) {
+        return this.strings[col];
+    }
+
+    public Date getDate(int col) {
+        return DateUtil.getJavaDate(this.numbers[col]);
+    }
+
+    /**
+     * 单元格值，类型为 Date / Double / String / Boolean，空白单元格为 null
+     * 会创建包装对象，导入过程中应按 getCellType 读取基本类型的值
+     *
+     * @param col
+     * @return
+     */
+    public Object getValue(int col) {
+        switch (this.getCellType(col)) {
+            case NUMBER:
+                return this.numbers[col];
+            case DATE:
+                return this.getDate(col);
+            case STRING:
+                return this.strings[col];
+            case BOOLEAN:
+                return this.getBoolean(col);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 复制当前行，复制出的实例不会被读取器复用，可以交给其他线程处理
+     *
+     * @return
+     */
+    public ExcelRow copy() {
+        ExcelRow copy = new ExcelRow();
+        int capacity = Math.max(this.lastCellNum, 1);
+        copy.rowIndex = this.rowIndex;
+        copy.lastCellNum = this.lastCellNum;
+        copy.types = Arrays.copyOf(this.types, capacity);
+        copy.numbers = Arrays.copyOf(this.numbers, capacity);
+        copy.strings = Arrays.copyOf(this.strings, capacity);
+        return copy;
+    }
+
+    /**
+     * 判断是否是空白行
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        for (int c = 0; c < this.lastCellNum; c++) {
+            if (this.types[c] != ExcelCellType.BLANK) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean ensureCapacity(int col) {
+        if (col < 0) {
+            return false;
+        }
+        if (col >= this.types.length) {
+            int capacity = Math.max(col + 1, this.types.length * 2);
+            int length = this.types.length;
+            this.types = Arrays.copyOf(this.types, capacity);
+            Arrays.fill(this.types, length, capacity, ExcelCellType.BLANK);
+            this.numbers = Arrays.copyOf(this.numbers, capacity);
+            this.strings = Arrays.copyOf(this.strings, capacity);
+        }
+        this.lastCellNum = Math.max(this.lastCellNum, col + 1);
+        return true;
+    }
+
+    private static ExcelCellType[] newTypes(int capacity) {
+        ExcelCellType[] types = new ExcelCellType[capacity];
+        Arrays.fill(types, ExcelCellType.BLANK);
+        return types;
+    }
+}
@@ -0,0 +1,15 @@
+package com.kjubo.excel.reader;
+
+/**
+ * 逐行接收读取器解析出的数据
+ */
+@FunctionalInterface
+public interface ExcelRowListener {
+
+    /**
+     * 每解析完一行回调一次，空白行（文件中不存在的行）不会回调
+     *
+     * @param row 复用的行对象，仅在本次回调内有效
+     */
+    void onRow(ExcelRow row);
+}
@@ -0,0 +1,107 @@
+package com.kjubo.excel.reader;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于 POI usermodel 的读取器，整个workbook会加载到内存中
+ * 主要用于 .xls 文件
+ */
+public class WorkbookReader implements ExcelReader {
+
+    private final Workbook workbook;
+    private final DateFormatCache dateFormats = new DateFormatCache();
+
+    public WorkbookReader(InputStream inputStream) throws IOException {
+        try {
+            this.workbook = WorkbookFactory.create(inputStream);
+        } catch (InvalidFormatException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void read(int sheetIndex, ExcelRowListener listener) throws IOException {
+        if (sheetIndex < 0 || sheetIndex >= this.workbook.getNumberOfSheets()) {
+            throw new IllegalArgumentException("sheet index out of range: " + sheetIndex);
+        }
+        Sheet sheet = this.workbook.getSheetAt(sheetIndex);
+        ExcelRow excelRow = new ExcelRow();
+        for (int i = sheet.getFirstRowNum(), rowNum = sheet.getLastRowNum(); i <= rowNum; i++) {
+            Row row = sheet.getRow(i);
+            if (row == null) {
+                continue;
+            }
+            excelRow.reset(i);
+            for (int c = Math.max(0, row.getFirstCellNum()), lastCellNum = row.getLastCellNum(); c < lastCellNum; c++) {
+                Cell cell = row.getCell(c);
+                if (cell != null) {
+                    this.setCellValue(excelRow, c, cell.getCellTypeEnum(), cell);
+                }
+            }
+            listener.onRow(excelRow);
+        }
+    }
+
+    @Override
+    public List<String> getSheetNames() {
+        List<String> names = new ArrayList<>(this.workbook.getNumberOfSheets());
+        for (int i = 0; i < this.workbook.getNumberOfSheets(); i++) {
+            names.add(this.workbook.getSheetName(i));
+        }
+        return names;
+    }
+
+    @Override
+    public boolean isSheetHidden(int sheetIndex) {
+        return this.workbook.isSheetHidden(sheetIndex) || this.workbook.isSheetVeryHidden(sheetIndex);
+    }
+
+    private void setCellValue(ExcelRow excelRow, int col, CellType cellType, Cell cell) {
+        switch (cellType) {
+            case NUMERIC:
+                double number = cell.getNumericCellValue();
+                excelRow.setNumber(col, number, this.isDateFormatted(cell) && DateUtil.isValidExcelDate(number));
+                break;
+            case STRING:
+                excelRow.setString(col, cell.getRichStringCellValue().getString().trim());
+                break;
+            // 公式类型
+            case FORMULA:
+                this.setCellValue(excelRow, col, cell.getCachedFormulaResultTypeEnum(), cell);
+                break;
+            // 布尔类型
+            case BOOLEAN:
+                excelRow.setBoolean(col, cell.getBooleanCellValue());
+                break;
+            // 空值
+            case BLANK:
+                break;
+            // 故障
+            case ERROR:
+                break;
+            default:
+                excelRow.setString(col, cell.getStringCellValue().trim());
+        }
+    }
+
+    private boolean isDateFormatted(Cell cell) {
+        CellStyle style = cell.getCellStyle();
+        if (style == null) {
+            return false;
+        }
+        int styleIndex = style.getIndex() & 0xFFFF;
+        Boolean date = this.dateFormats.get(styleIndex);
+        return date != null ? date : this.dateFormats.put(styleIndex, style);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.workbook.close();
+    }
+}
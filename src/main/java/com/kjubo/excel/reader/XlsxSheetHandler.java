@@ -0,0 +1,203 @@
+package com.kjubo.excel.reader;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * 解析 sheet xml 的SAX处理器
+ * 每读完一个 &lt;row&gt; 即回调监听器，不保留已解析的行
+ * 单元格值直接从字符缓冲区写入复用的行对象，不产生包装对象
+ */
+class XlsxSheetHandler extends DefaultHandler {
+
+    /**
+     * 不超过该位数的整数可以精确地用 double 表示
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+    private final ExcelRowListener listener;
+
+    private final ExcelRow row = new ExcelRow();
+    private final StringBuilder text = new StringBuilder();
+    private final DateFormatCache dateFormats = new DateFormatCache();
+
+    private int nextRowIndex = 0;
+    private int col = -1;
+    private String cellType;
+    private int styleIndex;
+
+    /**
+     * 是否在收集 &lt;v&gt; 或内联字符串的 &lt;t&gt; 内容
+     */
+    private boolean collecting;
+    private boolean inInlineString;
+    private boolean inPhonetic;
+
+    XlsxSheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, ExcelRowListener listener) {
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+        this.listener = listener;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+            case "row":
+                String r = attributes.getValue("r");
+                this.row.reset(r != null ? Integer.parseInt(r) - 1 : this.nextRowIndex);
+                this.col = -1;
+                break;
+            case "c":
+                String ref = attributes.getValue("r");
+                this.col = ref != null ? columnIndex(ref) : this.col + 1;
+                this.cellType = attributes.getValue("t");
+                String s = attributes.getValue("s");
+                this.styleIndex = s != null ? Integer.parseInt(s) : -1;
+                this.text.setLength(0);
+                break;
+            case "v":
+                this.collecting = true;
+                this.text.setLength(0);
+                break;
+            case "is":
+                this.inInlineString = true;
+                this.text.setLength(0);
+                break;
+            case "rPh":
+                this.inPhonetic = true;
+                break;
+            case "t":
+                this.collecting = this.inInlineString && !this.inPhonetic;
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (this.collecting) {
+            this.text.append(ch, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        switch (localName) {
+            case "v":
+            case "t":
+                this.collecting = false;
+                break;
+            case "rPh":
+                this.inPhonetic = false;
+                break;
+            case "is":
+                this.inInlineString = false;
+                break;
+            case "c":
+                this.setCellValue();
+                break;
+            case "row":
+                this.listener.onRow(this.row);
+                this.nextRowIndex = this.row.getRowIndex() + 1;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void setCellValue() {
+        if (this.text.length() == 0) {
+            return;
+        }
+        if (this.cellType == null || "n".equals(this.cellType)) {
+            double number = this.parseNumber();
+            this.row.setNumber(this.col, number, this.isDateStyle(this.styleIndex) && DateUtil.isValidExcelDate(number));
+            return;
+        }
+        switch (this.cellType) {
+            // 共享字符串
+            case "s":
+                this.row.setString(this.col, this.sharedStrings.getEntryAt((int) this.parseLong()).trim());
+                break;
+            // 布尔类型
+            case "b":
+                this.row.setBoolean(this.col, this.text.charAt(0) == '1');
+                break;
+            // 故障
+            case "e":
+                break;
+            // 内联字符串，公式字符串结果
+            default:
+                this.row.setString(this.col, this.text.toString().trim());
+        }
+    }
+
+    /**
+     * 整数直接从字符缓冲区解析，其他格式才创建字符串
+     *
+     * @return
+     */
+    private double parseNumber() {
+        if (this.isPlainInteger()) {
+            return this.parseLong();
+        }
+        return Double.parseDouble(this.text.toString());
+    }
+
+    private boolean isPlainInteger() {
+        int length = this.text.length();
+        int start = this.text.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length - start > MAX_EXACT_DIGITS) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = this.text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long parseLong() {
+        int length = this.text.length();
+        boolean negative = this.text.charAt(0) == '-';
+        long value = 0;
+        for (int i = negative ? 1 : 0; i < length; i++) {
+            value = value * 10 + (this.text.charAt(i) - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * 单元格引用（如 "AB12"）中的列序号，从0开始
+     *
+     * @param ref
+     * @return
+     */
+    private static int columnIndex(String ref) {
+        int col = 0;
+        for (int i = 0, length = ref.length(); i < length; i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            col = col * 26 + (c - 'A' + 1);
+        }
+        return col - 1;
+    }
+
+    private boolean isDateStyle(int styleIndex) {
+        if (styleIndex < 0 || this.styles == null) {
+            return false;
+        }
+        Boolean date = this.dateFormats.get(styleIndex);
+        return date != null ? date : this.dateFormats.put(styleIndex, this.styles.getStyleAt(styleIndex));
+    }
+}
@@ -0,0 +1,121 @@
+package com.kjubo.excel.reader;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheet;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STSheetState;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基于 POI XSSF event model 的 .xlsx 流式读取器
+ * 文件流先落地为临时文件，再通过 zip 随机访问逐行解析sheet，
+ * 内存中只保留共享字符串表、样式表和当前行
+ * 共享字符串表和样式表在第一次读取时加载，依次读取多个sheet页时共用
+ */
+public class XlsxStreamingReader implements ExcelReader {
+
+    private final File tempFile;
+    private final OPCPackage pkg;
+
+    private XSSFReader reader;
+    private ReadOnlySharedStringsTable sharedStrings;
+    private StylesTable styles;
+
+    /**
+     * workbook.xml 中按顺序排列的sheet页
+     */
+    private List<CTSheet> sheets;
+
+    public XlsxStreamingReader(InputStream inputStream) throws IOException {
+        this.tempFile = TempFile.createTempFile("sqexcel-import", ".xlsx");
+        try {
+            Files.copy(inputStream, this.tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            this.pkg = OPCPackage.open(this.tempFile, PackageAccess.READ);
+        } catch (IOException | OpenXML4JException | RuntimeException e) {
+            this.tempFile.delete();
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+    }
+
+    @Override
+    public void read(int sheetIndex, ExcelRowListener listener) throws IOException {
+        this.load();
+        if (sheetIndex < 0 || sheetIndex >= this.sheets.size()) {
+            throw new IllegalArgumentException("sheet index out of range: " + sheetIndex);
+        }
+        try (InputStream sheet = this.reader.getSheet(this.sheets.get(sheetIndex).getId())) {
+            XMLReader parser = SAXHelper.newXMLReader();
+            parser.setContentHandler(new XlsxSheetHandler(this.sharedStrings, this.styles, listener));
+            parser.parse(new InputSource(sheet));
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public List<String> getSheetNames() throws IOException {
+        this.load();
+        List<String> names = new ArrayList<>(this.sheets.size());
+        for (CTSheet sheet : this.sheets) {
+            names.add(sheet.getName());
+        }
+        return names;
+    }
+
+    @Override
+    public boolean isSheetHidden(int sheetIndex) throws IOException {
+        this.load();
+        STSheetState.Enum state = this.sheets.get(sheetIndex).getState();
+        return state == STSheetState.HIDDEN || state == STSheetState.VERY_HIDDEN;
+    }
+
+    /**
+     * 加载sheet页列表、共享字符串表和样式表
+     */
+    private void load() throws IOException {
+        if (this.reader != null) {
+            return;
+        }
+        try {
+            XSSFReader reader = new XSSFReader(this.pkg);
+            try (InputStream workbook = reader.getWorkbookData()) {
+                this.sheets = Arrays.asList(WorkbookDocument.Factory.parse(workbook)
+                        .getWorkbook().getSheets().getSheetArray());
+            }
+            this.sharedStrings = new ReadOnlySharedStringsTable(this.pkg);
+            this.styles = reader.getStylesTable();
+            this.reader = reader;
+        } catch (OpenXML4JException | SAXException | XmlException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.pkg.revert();
+        } finally {
+            this.tempFile.delete();
+        }
+    }
+}
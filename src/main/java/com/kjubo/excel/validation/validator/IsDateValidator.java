@@ -1,22 +1,26 @@
 package com.kjubo.excel.validation.validator;
 
 
+import com.kjubo.excel.convert.DateFormats;
 import com.kjubo.excel.validation.annotation.IsDate;
-import org.apache.commons.lang3.time.DateUtils;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
-import java.text.ParseException;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
 import java.util.Date;
 
 
 public class IsDateValidator implements ConstraintValidator<IsDate, Object> {
 
-    private String[] format;
+    /**
+     * 初始化时按 format 编译，与导入时的日期转换共用同一组解析器
+     */
+    private DateTimeFormatter[] parsers;
 
     @Override
     public void initialize(IsDate constraintAnnotation) {
-        this.format = constraintAnnotation.format();
+        this.parsers = DateFormats.parsers(constraintAnnotation.format());
     }
 
     @Override
@@ -25,16 +29,15 @@ public class IsDateValidator implements ConstraintValidator<IsDate, Object> {
         if (value == null) {
             return true;
         }
-        if (value instanceof Date) {
+        if (value instanceof Date || value instanceof TemporalAccessor) {
             return true;
         }
 
-        String dateStr = String.valueOf(value);
-        Date dt = null;
         try {
-            dt = DateUtils.parseDateStrictly(dateStr, format);
-        } catch (ParseException e) {
+            DateFormats.parse(String.valueOf(value), this.parsers);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
         }
-        return dt != null;
     }
 }
@@ -0,0 +1,77 @@
+package com.kjubo.excel.writer;
+
+/**
+ * java 日期格式与 excel 数字格式的转换
+ */
+public final class ExcelFormats {
+
+    private ExcelFormats() {
+    }
+
+    /**
+     * 把 SimpleDateFormat / DateTimeFormatter 的格式转为 excel 的格式，例如 yyyy-MM-dd HH:mm:ss 转为 yyyy-mm-dd hh:mm:ss
+     *
+     * @param pattern java 日期格式
+     * @return
+     */
+    public static String fromDatePattern(String pattern) {
+        StringBuilder format = new StringBuilder(pattern.length() + 8);
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                    format.append('\'');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+                continue;
+            }
+            if (quoted) {
+                format.append(c == '"' ? "\\\"" : "\\" + c);
+                continue;
+            }
+            switch (c) {
+                case 'M':
+                    format.append('m');
+                    break;
+                case 'H':
+                case 'k':
+                case 'K':
+                    format.append('h');
+                    break;
+                case 'S':
+                    // 毫秒，ss.SSS 对应 ss.000
+                    format.append('0');
+                    break;
+                case 'a':
+                    if (i == 0 || pattern.charAt(i - 1) != 'a') {
+                        format.append("AM/PM");
+                    }
+                    break;
+                case 'E':
+                    if (i == 0 || pattern.charAt(i - 1) != 'E') {
+                        format.append("aaa");
+                    }
+                    break;
+                case 'y':
+                case 'd':
+                case 'h':
+                case 'm':
+                case 's':
+                    format.append(c);
+                    break;
+                default:
+                    if (Character.isLetter(c)) {
+                        // excel 不支持的格式字母按原样显示
+                        format.append('\\').append(c);
+                    } else {
+                        format.append(c);
+                    }
+                    break;
+            }
+        }
+        return format.toString();
+    }
+}
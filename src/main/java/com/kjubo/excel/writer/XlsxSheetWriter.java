@@ -0,0 +1,314 @@
+package com.kjubo.excel.writer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一个 sheet 的行写入器，由 XlsxStreamWriter 创建，只能在一个线程中使用
+ * 列宽需要在写入第一行之前设置；行按顺序写入，同一行内的单元格按列序号递增写入
+ */
+public class XlsxSheetWriter implements Closeable {
+
+    /**
+     * excel 单个 sheet 的最大行数
+     */
+    public static final int MAX_ROWS = 1048576;
+
+    private static final String[] COLUMN_NAMES = new String[256];
+
+    static {
+        for (int i = 0; i < COLUMN_NAMES.length; i++) {
+            COLUMN_NAMES[i] = toColumnName(i);
+        }
+    }
+
+    private final XlsxStreamWriter workbook;
+    private final Writer writer;
+
+    /**
+     * 独立写入的 sheet 所在的临时文件，直接写入工作簿时为 null
+     */
+    private final Path part;
+    private final List<String> validations = new ArrayList<>();
+
+    private double[] columnWidths;
+    private boolean started = false;
+    private boolean closed = false;
+    private int rowIndex = -1;
+    private int lastCol = -1;
+    private boolean inRow = false;
+
+    XlsxSheetWriter(XlsxStreamWriter workbook, Writer writer, Path part) {
+        this.workbook = workbook;
+        this.writer = writer;
+        this.part = part;
+    }
+
+    /**
+     * 设置列宽
+     *
+     * @param widths 每一列的宽度，单位为字符数，小于等于0的列使用默认宽度
+     */
+    public void setColumnWidths(double[] widths) {
+        if (this.started) {
+            throw new IllegalStateException("column widths must be set before the first row");
+        }
+        this.columnWidths = widths == null ? null : widths.clone();
+    }
+
+    public XlsxStreamWriter getWorkbook() {
+        return this.workbook;
+    }
+
+    /**
+     * 已写入的行数，包括跳过的空白行
+     *
+     * @return
+     */
+    public int getRowCount() {
+        return this.rowIndex + 1;
+    }
+
+    /**
+     * 开始新的一行，上一行会被结束
+     *
+     * @throws IOException
+     */
+    public void startRow() throws IOException {
+        this.startRow(this.rowIndex + 1);
+    }
+
+    /**
+     * 开始指定行号的一行，跳过的行为空白行，上一行会被结束
+     *
+     * @param rowIndex 行号，从0开始，必须大于已写入的行号
+     * @throws IOException
+     */
+    public void startRow(int rowIndex) throws IOException {
+        this.checkOpen();
+        if (rowIndex <= this.rowIndex) {
+            throw new IllegalArgumentException("rows must be written in order");
+        }
+        if (rowIndex >= MAX_ROWS) {
+            throw new IllegalStateException("sheet has reached the max rows of excel: " + MAX_ROWS);
+        }
+        this.start();
+        this.endRow();
+        this.rowIndex = rowIndex;
+        this.lastCol = -1;
+        this.inRow = true;
+        this.writer.write("<row r=\"");
+        this.writer.write(Integer.toString(this.rowIndex + 1));
+        this.writer.write("\">");
+    }
+
+    public void writeString(int col, String value) throws IOException {
+        this.writeString(col, value, XlsxStreamWriter.DEFAULT_STYLE);
+    }
+
+    /**
+     * 写入内联字符串单元格，null 不写入
+     */
+    public void writeString(int col, String value, int style) throws IOException {
+        if (value == null) {
+            return;
+        }
+        this.startCell(col, style, "inlineStr");
+        this.writer.write("><is><t xml:space=\"preserve\">");
+        XmlEscaper.write(this.writer, value);
+        this.writer.write("</t></is></c>");
+    }
+
+    public void writeNumber(int col, double value) throws IOException {
+        this.writeNumber(col, value, XlsxStreamWriter.DEFAULT_STYLE);
+    }
+
+    /**
+     * 写入数字单元格，非有限值写为字符串
+     */
+    public void writeNumber(int col, double value, int style) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            this.writeString(col, Double.toString(value), style);
+            return;
+        }
+        this.startCell(col, style, null);
+        this.writer.write("><v>");
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            this.writer.write(Long.toString((long) value));
+        } else {
+            this.writer.write(Double.toString(value));
+        }
+        this.writer.write("</v></c>");
+    }
+
+    /**
+     * 写入数字单元格，按原值的文本写入，不经过 double
+     */
+    public void writeNumber(int col, String plainNumber, int style) throws IOException {
+        this.startCell(col, style, null);
+        this.writer.write("><v>");
+        this.writer.write(plainNumber);
+        this.writer.write("</v></c>");
+    }
+
+    /**
+     * 写入只有样式的空白单元格
+     */
+    public void writeBlank(int col, int style) throws IOException {
+        this.startCell(col, style, null);
+        this.writer.write("/>");
+    }
+
+    public void writeBoolean(int col, boolean value, int style) throws IOException {
+        this.startCell(col, style, "b");
+        this.writer.write(value ? "><v>1</v></c>" : "><v>0</v></c>");
+    }
+
+    /**
+     * 添加下拉框数据校验
+     *
+     * @param firstRow 开始行，从0开始
+     * @param lastRow  结束行，从0开始
+     * @param col      列序号
+     * @param formula  数据源，例如已定义的名称
+     */
+    public void addListValidation(int firstRow, int lastRow, int col, String formula) {
+        this.checkOpen();
+        String column = columnName(col);
+        this.validations.add("<dataValidation type=\"list\" allowBlank=\"1\" showErrorMessage=\"1\" sqref=\""
+                + column + (firstRow + 1) + ":" + column + (lastRow + 1) + "\"><formula1>"
+                + XmlEscaper.escape(formula) + "</formula1></dataValidation>");
+    }
+
+    /**
+     * 结束 sheet
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.start();
+        this.endRow();
+        this.writer.write("</sheetData>");
+        if (!this.validations.isEmpty()) {
+            this.writer.write("<dataValidations count=\"");
+            this.writer.write(Integer.toString(this.validations.size()));
+            this.writer.write("\">");
+            for (String validation : this.validations) {
+                this.writer.write(validation);
+            }
+            this.writer.write("</dataValidations>");
+        }
+        this.writer.write("</worksheet>");
+        this.closed = true;
+        if (this.part == null) {
+            this.workbook.sheetClosed(this);
+        } else {
+            this.writer.close();
+        }
+    }
+
+    Path getPart() {
+        return this.part;
+    }
+
+    boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * 列序号转为列名，0 为 A
+     *
+     * @param col
+     * @return
+     */
+    public static String columnName(int col) {
+        if (col >= 0 && col < COLUMN_NAMES.length) {
+            return COLUMN_NAMES[col];
+        }
+        return toColumnName(col);
+    }
+
+    private void start() throws IOException {
+        if (this.started) {
+            return;
+        }
+        this.started = true;
+        this.writer.write(XlsxStreamWriter.XML_HEADER);
+        this.writer.write("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+                + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">");
+        if (this.columnWidths != null && this.columnWidths.length > 0) {
+            StringBuilder cols = new StringBuilder("<cols>");
+            for (int i = 0; i < this.columnWidths.length; i++) {
+                if (this.columnWidths[i] > 0) {
+                    cols.append("<col min=\"").append(i + 1).append("\" max=\"").append(i + 1)
+                            .append("\" width=\"").append(Math.min(255, this.columnWidths[i]))
+                            .append("\" customWidth=\"1\"/>");
+                }
+            }
+            cols.append("</cols>");
+            if (cols.length() > "<cols></cols>".length()) {
+                this.writer.write(cols.toString());
+            }
+        }
+        this.writer.write("<sheetData>");
+    }
+
+    private void endRow() throws IOException {
+        if (this.inRow) {
+            this.writer.write("</row>");
+            this.inRow = false;
+        }
+    }
+
+    private void startCell(int col, int style, String type) throws IOException {
+        if (!this.inRow) {
+            throw new IllegalStateException("startRow must be called before writing cells");
+        }
+        if (col <= this.lastCol) {
+            throw new IllegalArgumentException("cells must be written in column order");
+        }
+        this.lastCol = col;
+        this.writer.write("<c r=\"");
+        this.writer.write(columnName(col));
+        this.writer.write(Integer.toString(this.rowIndex + 1));
+        this.writer.write('"');
+        if (style != XlsxStreamWriter.DEFAULT_STYLE) {
+            this.writer.write(" s=\"");
+            this.writer.write(Integer.toString(style));
+            this.writer.write('"');
+        }
+        if (type != null) {
+            this.writer.write(" t=\"");
+            this.writer.write(type);
+            this.writer.write('"');
+        }
+    }
+
+    private void checkOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("sheet writer is closed");
+        }
+    }
+
+    private static String toColumnName(int col) {
+        if (col < 0) {
+            throw new IllegalArgumentException("column index must not be negative");
+        }
+        StringBuilder name = new StringBuilder();
+        int n = col + 1;
+        while (n > 0) {
+            int rem = (n - 1) % 26;
+            name.insert(0, (char) ('A' + rem));
+            n = (n - 1) / 26;
+        }
+        return name.toString();
+    }
+}
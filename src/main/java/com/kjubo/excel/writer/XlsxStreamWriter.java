@@ -0,0 +1,432 @@
+package com.kjubo.excel.writer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 直接把 SpreadsheetML 写入输出流的 .xlsx 写入器
+ * 不创建 POI 的 Row / Cell 对象，不使用临时文件；字符串以 inlineStr 写入，不生成共享字符串表
+ * 同一时间只能直接写一个 sheet，sheet 按加入的顺序排列；需要并行写入时使用 createSheetPart
+ */
+public class XlsxStreamWriter implements Closeable {
+
+    /**
+     * 默认样式
+     */
+    public static final int DEFAULT_STYLE = 0;
+
+    /**
+     * 标题样式：居中、粗体、灰色背景、细边框
+     */
+    public static final int HEADER_STYLE = 1;
+
+    /**
+     * 错误样式：浅红色背景、深红色字体
+     */
+    public static final int ERROR_STYLE = 2;
+
+    /**
+     * sheet 名称的最大长度
+     */
+    public static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    /**
+     * sheet 名称中不允许的字符
+     */
+    private static final String INVALID_SHEET_NAME_CHARS = "[]:*?/\\";
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+
+    /**
+     * 自定义的数字格式和对应的 numFmtId
+     */
+    private final Map<String, Integer> formats = new LinkedHashMap<>();
+
+    /**
+     * 使用自定义格式的样式，样式序号从 ERROR_STYLE + 1 开始，按创建顺序排列
+     */
+    private final Map<String, Integer> formatStyles = new LinkedHashMap<>();
+    private final List<FormatStyle> formatStyleList = new ArrayList<>();
+
+    private final List<SheetEntry> sheets = new ArrayList<>();
+    private final Map<String, String> definedNames = new LinkedHashMap<>();
+
+    private XlsxSheetWriter current;
+    private boolean closed = false;
+
+    /**
+     * @param out 输出流，写入完成后不会被关闭
+     */
+    public XlsxStreamWriter(OutputStream out) {
+        if (out == null) {
+            throw new IllegalArgumentException("output stream can not be null");
+        }
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.writer = new BufferedWriter(new OutputStreamWriter(this.zip, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    public XlsxSheetWriter createSheet(String name) throws IOException {
+        return this.createSheet(name, false);
+    }
+
+    private static boolean containsInvalidChar(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (INVALID_SHEET_NAME_CHARS.indexOf(name.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 创建 sheet，上一个 sheet 会被结束
+     *
+     * @param name   sheet名称，不超过31个字符，不能包含 []:*?/\
+     * @param hidden 是否隐藏
+     * @return
+     * @throws IOException
+     */
+    public XlsxSheetWriter createSheet(String name, boolean hidden) throws IOException {
+        this.checkOpen();
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("sheet name can not be empty");
+        }
+        if (name.length() > MAX_SHEET_NAME_LENGTH) {
+            throw new IllegalArgumentException("sheet name is longer than " + MAX_SHEET_NAME_LENGTH + " characters: " + name);
+        }
+        if (containsInvalidChar(name)) {
+            throw new IllegalArgumentException("sheet name can not contain any of " + INVALID_SHEET_NAME_CHARS + ": " + name);
+        }
+        for (SheetEntry sheet : this.sheets) {
+            if (sheet.name.equalsIgnoreCase(name)) {
+                throw new IllegalArgumentException("duplicate sheet name: " + name);
+            }
+        }
+        if (this.current != null) {
+            this.current.close();
+        }
+        int index = this.sheets.size() + 1;
+        this.sheets.add(new SheetEntry(name, hidden));
+        this.zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + index + ".xml"));
+        this.current = new XlsxSheetWriter(this, this.writer, null);
+        return this.current;
+    }
+
+    /**
+     * 创建独立写入的 sheet，内容写入临时文件，可以在其他线程中与其他 sheet 同时写入
+     * 写入完成并关闭后通过 addSheetPart 按顺序加入工作簿
+     *
+     * @return
+     * @throws IOException
+     */
+    public XlsxSheetWriter createSheetPart() throws IOException {
+        this.checkOpen();
+        Path part = Files.createTempFile("sqexcel-sheet", ".xml");
+        try {
+            Writer partWriter = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(part), StandardCharsets.UTF_8), 64 * 1024);
+            return new XlsxSheetWriter(this, partWriter, part);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+    }
+
+    /**
+     * 把已写入完成的独立 sheet 加入工作簿，之后删除临时文件
+     *
+     * @param name   sheet名称
+     * @param hidden 是否隐藏
+     * @param part   createSheetPart 创建的 sheet
+     * @throws IOException
+     */
+    public void addSheetPart(String name, boolean hidden, XlsxSheetWriter part) throws IOException {
+        if (part.getPart() == null || part.getWorkbook() != this) {
+            throw new IllegalArgumentException("sheet is not a part of this workbook");
+        }
+        if (!part.isClosed()) {
+            throw new IllegalStateException("sheet part must be closed before adding to workbook");
+        }
+        try {
+            this.createSheet(name, hidden);
+            this.writer.flush();
+            Files.copy(part.getPart(), this.zip);
+            this.zip.closeEntry();
+            this.current = null;
+        } finally {
+            Files.deleteIfExists(part.getPart());
+        }
+    }
+
+    /**
+     * 放弃独立写入的 sheet，删除临时文件
+     *
+     * @param part
+     */
+    public void discardSheetPart(XlsxSheetWriter part) {
+        if (part == null || part.getPart() == null) {
+            return;
+        }
+        try {
+            if (!part.isClosed()) {
+                part.close();
+            }
+        } catch (IOException ignored) {
+            // 只需要删除临时文件
+        }
+        try {
+            Files.deleteIfExists(part.getPart());
+        } catch (IOException ignored) {
+            part.getPart().toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * 定义名称，用于下拉框引用数据源
+     *
+     * @param name
+     * @param formula 例如 Sheet1!$A$1:$A$10
+     */
+    public synchronized void defineName(String name, String formula) {
+        this.checkOpen();
+        this.definedNames.put(name, formula);
+    }
+
+    /**
+     * 获取使用指定数字格式的样式，同一个格式只创建一次
+     *
+     * @param format excel 的格式，例如 yyyy/m/d、0.00
+     * @return 样式序号
+     */
+    public int getFormatStyle(String format) {
+        return this.getFormatStyle(format, false);
+    }
+
+    /**
+     * 获取使用指定数字格式的错误样式，同一个格式只创建一次
+     *
+     * @param format excel 的格式，为空时返回 ERROR_STYLE
+     * @return 样式序号
+     */
+    public int getErrorStyle(String format) {
+        return format == null ? ERROR_STYLE : this.getFormatStyle(format, true);
+    }
+
+    private synchronized int getFormatStyle(String format, boolean error) {
+        this.checkOpen();
+        String key = error ? '\0' + format : format;
+        Integer style = this.formatStyles.get(key);
+        if (style == null) {
+            style = ERROR_STYLE + 1 + this.formatStyleList.size();
+            Integer formatId = this.formats.get(format);
+            if (formatId == null) {
+                formatId = CUSTOM_FORMAT_ID + this.formats.size();
+                this.formats.put(format, formatId);
+            }
+            this.formatStyles.put(key, style);
+            this.formatStyleList.add(new FormatStyle(formatId, error));
+        }
+        return style;
+    }
+
+    public boolean hasSheet(String name) {
+        return this.sheets.stream().anyMatch(p -> p.name.equalsIgnoreCase(name));
+    }
+
+    /**
+     * 写入工作簿结构并结束 zip，不关闭输出流
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        if (this.current != null) {
+            this.current.close();
+        }
+        if (this.sheets.isEmpty()) {
+            this.createSheet("Sheet1").close();
+        }
+        this.closed = true;
+        this.writeEntry("[Content_Types].xml", this.contentTypes());
+        this.writeEntry("_rels/.rels", ROOT_RELS);
+        this.writeEntry("xl/workbook.xml", this.workbook());
+        this.writeEntry("xl/_rels/workbook.xml.rels", this.workbookRels());
+        this.writeEntry("xl/styles.xml", this.styles());
+        this.zip.finish();
+        this.zip.flush();
+    }
+
+    /**
+     * 由 sheet 写入器在 sheet 结束时调用
+     */
+    void sheetClosed(XlsxSheetWriter sheet) throws IOException {
+        if (this.current == sheet) {
+            this.writer.flush();
+            this.zip.closeEntry();
+            this.current = null;
+        }
+    }
+
+    private void checkOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("xlsx writer is closed");
+        }
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        this.zip.putNextEntry(new ZipEntry(name));
+        this.writer.write(content);
+        this.writer.flush();
+        this.zip.closeEntry();
+    }
+
+    private String contentTypes() {
+        StringBuilder xml = new StringBuilder(XML_HEADER)
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        for (int i = 1; i <= this.sheets.size(); i++) {
+            xml.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return xml.append("</Types>").toString();
+    }
+
+    private synchronized String workbook() {
+        StringBuilder xml = new StringBuilder(XML_HEADER)
+                .append("<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"")
+                .append(" xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">")
+                .append("<sheets>");
+        for (int i = 0; i < this.sheets.size(); i++) {
+            SheetEntry sheet = this.sheets.get(i);
+            xml.append("<sheet name=\"").append(XmlEscaper.escape(sheet.name))
+                    .append("\" sheetId=\"").append(i + 1).append('"');
+            if (sheet.hidden) {
+                xml.append(" state=\"hidden\"");
+            }
+            xml.append(" r:id=\"rId").append(i + 1).append("\"/>");
+        }
+        xml.append("</sheets>");
+        if (!this.definedNames.isEmpty()) {
+            xml.append("<definedNames>");
+            for (Map.Entry<String, String> name : this.definedNames.entrySet()) {
+                xml.append("<definedName name=\"").append(XmlEscaper.escape(name.getKey())).append("\">")
+                        .append(XmlEscaper.escape(name.getValue())).append("</definedName>");
+            }
+            xml.append("</definedNames>");
+        }
+        return xml.append("</workbook>").toString();
+    }
+
+    private String workbookRels() {
+        StringBuilder xml = new StringBuilder(XML_HEADER)
+                .append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        int i = 1;
+        for (; i <= this.sheets.size(); i++) {
+            xml.append("<Relationship Id=\"rId").append(i)
+                    .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\"")
+                    .append(" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+        xml.append("<Relationship Id=\"rId").append(i)
+                .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\"")
+                .append(" Target=\"styles.xml\"/>");
+        return xml.append("</Relationships>").toString();
+    }
+
+    private synchronized String styles() {
+        StringBuilder xml = new StringBuilder(XML_HEADER)
+                .append("<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">");
+        if (!this.formats.isEmpty()) {
+            xml.append("<numFmts count=\"").append(this.formats.size()).append("\">");
+            for (Map.Entry<String, Integer> format : this.formats.entrySet()) {
+                xml.append("<numFmt numFmtId=\"").append(format.getValue())
+                        .append("\" formatCode=\"").append(XmlEscaper.escape(format.getKey())).append("\"/>");
+            }
+            xml.append("</numFmts>");
+        }
+        xml.append(STYLE_FONTS_FILLS_BORDERS)
+                .append("<cellXfs count=\"").append(ERROR_STYLE + 1 + this.formatStyleList.size()).append("\">")
+                .append(STYLE_DEFAULT_HEADER_ERROR_XFS);
+        for (FormatStyle style : this.formatStyleList) {
+            xml.append("<xf numFmtId=\"").append(style.formatId);
+            if (style.error) {
+                xml.append("\" fontId=\"2\" fillId=\"3\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\" applyFont=\"1\" applyFill=\"1\"/>");
+            } else {
+                xml.append("\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>");
+            }
+        }
+        return xml.append("</cellXfs>")
+                .append("<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>")
+                .append("</styleSheet>")
+                .toString();
+    }
+
+    private static final class FormatStyle {
+        private final int formatId;
+        private final boolean error;
+
+        FormatStyle(int formatId, boolean error) {
+            this.formatId = formatId;
+            this.error = error;
+        }
+    }
+
+    private static final class SheetEntry {
+        private final String name;
+        private final boolean hidden;
+
+        SheetEntry(String name, boolean hidden) {
+            this.name = name;
+            this.hidden = hidden;
+        }
+    }
+
+    static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private static final String ROOT_RELS = XML_HEADER
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\""
+            + " Target=\"xl/workbook.xml\"/>"
+            + "</Relationships>";
+
+    /**
+     * 自定义数字格式的起始序号，小于该值的是内置格式
+     */
+    private static final int CUSTOM_FORMAT_ID = 164;
+
+    private static final String STYLE_FONTS_FILLS_BORDERS =
+            "<fonts count=\"3\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+            + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+            + "<font><sz val=\"11\"/><color rgb=\"FF9C0006\"/><name val=\"Calibri\"/></font></fonts>"
+            + "<fills count=\"4\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill>"
+            + "<fill><patternFill patternType=\"solid\"><fgColor indexed=\"22\"/><bgColor indexed=\"22\"/></patternFill></fill>"
+            + "<fill><patternFill patternType=\"solid\"><fgColor rgb=\"FFFFC7CE\"/><bgColor indexed=\"64\"/></patternFill></fill></fills>"
+            + "<borders count=\"2\"><border><left/><right/><top/><bottom/><diagonal/></border>"
+            + "<border><left style=\"thin\"><color indexed=\"8\"/></left><right style=\"thin\"><color indexed=\"8\"/></right>"
+            + "<top style=\"thin\"><color indexed=\"8\"/></top><bottom style=\"thin\"><color indexed=\"8\"/></bottom><diagonal/></border></borders>"
+            + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>";
+
+    private static final String STYLE_DEFAULT_HEADER_ERROR_XFS =
+            "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+            + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"2\" borderId=\"1\" xfId=\"0\" applyFont=\"1\" applyFill=\"1\" applyBorder=\"1\" applyAlignment=\"1\">"
+            + "<alignment horizontal=\"center\"/></xf>"
+            + "<xf numFmtId=\"0\" fontId=\"2\" fillId=\"3\" borderId=\"0\" xfId=\"0\" applyFont=\"1\" applyFill=\"1\"/>";
+}
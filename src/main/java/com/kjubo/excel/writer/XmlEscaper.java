@@ -0,0 +1,79 @@
+package com.kjubo.excel.writer;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * xml 文本转义，去掉 xml 1.0 不允许的控制字符
+ */
+final class XmlEscaper {
+
+    private XmlEscaper() {
+    }
+
+    static String escape(String text) {
+        StringBuilder builder = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            append(builder, text.charAt(i));
+        }
+        return builder.toString();
+    }
+
+    static void write(Writer writer, String text) throws IOException {
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!needsEscape(c)) {
+                continue;
+            }
+            writer.write(text, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                default:
+                    // 非法控制字符直接丢弃
+                    break;
+            }
+        }
+        writer.write(text, start, text.length() - start);
+    }
+
+    private static void append(StringBuilder builder, char c) {
+        switch (c) {
+            case '&':
+                builder.append("&amp;");
+                break;
+            case '<':
+                builder.append("&lt;");
+                break;
+            case '>':
+                builder.append("&gt;");
+                break;
+            case '"':
+                builder.append("&quot;");
+                break;
+            default:
+                if (!needsEscape(c)) {
+                    builder.append(c);
+                }
+                break;
+        }
+    }
+
+    private static boolean needsEscape(char c) {
+        return c == '&' || c == '<' || c == '>' || c == '"'
+                || (c < 0x20 && c != '\t' && c != '\n' && c != '\r')
+                || c == 0xFFFE || c == 0xFFFF;
+    }
+}